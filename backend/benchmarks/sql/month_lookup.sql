@@ -0,0 +1,61 @@
+-- Monthly report lookup: YEAR()/MONTH() predicate vs. half-open date range
+--
+-- Run against a scratch Postgres database:
+--   psql -h localhost -p 5433 -U postgres -d Migraine_Diary_Bench -f benchmarks/sql/month_lookup.sql
+--
+-- Seeds 5,000 users x ~3 years of daily episodes (~5.5M rows), then compares the plan of
+-- the old findByUsernameAndMonth predicate with the one EpisodeService now issues through
+-- findByUsernameAndDateRange.
+
+DROP TABLE IF EXISTS episodes_bench;
+
+CREATE TABLE episodes_bench (
+    episode_id         serial PRIMARY KEY,
+    username           varchar(255),
+    episode_date       date,
+    trigger_ids        integer[],
+    menstrual_period   boolean NOT NULL DEFAULT false,
+    morning_severity   integer NOT NULL,
+    afternoon_severity integer NOT NULL,
+    evening_severity   integer NOT NULL,
+    notes              varchar(255)
+);
+
+INSERT INTO episodes_bench (username, episode_date, trigger_ids, morning_severity, afternoon_severity, evening_severity, notes)
+SELECT 'user' || u,
+       DATE '2022-01-01' + d,
+       ARRAY[(random() * 31)::int + 1],
+       (random() * 10)::int,
+       (random() * 10)::int,
+       (random() * 10)::int,
+       'seeded'
+FROM generate_series(1, 5000) AS u,
+     generate_series(0, 1094) AS d;
+
+-- Same index as Episode's @Table(indexes = ...)
+CREATE INDEX idx_episodes_bench_username_date ON episodes_bench (username, episode_date);
+ANALYZE episodes_bench;
+
+\timing on
+
+-- Before: the function wraps the column, so only the username prefix of the index is usable
+-- and every row for the user (or the whole table, without the index) is filtered.
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM episodes_bench
+WHERE username = 'user2500'
+  AND EXTRACT(YEAR FROM episode_date) = 2023
+  AND EXTRACT(MONTH FROM episode_date) = 6
+ORDER BY episode_date;
+
+-- After: [firstOfMonth, firstOfNextMonth) on the bare column is an index range scan
+-- touching only the ~30 rows of the month.
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM episodes_bench
+WHERE username = 'user2500'
+  AND episode_date >= DATE '2023-06-01'
+  AND episode_date < DATE '2023-07-01'
+ORDER BY episode_date;
+
+\timing off
+
+DROP TABLE episodes_bench;
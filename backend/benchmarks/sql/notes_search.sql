@@ -0,0 +1,89 @@
+-- Notes search (V3__notes_search.sql, PostgresNoteSearch): a (user_id, tsvector) GIN lookup versus reading
+-- the user's notes, for a short and a long history
+--
+-- Run against a scratch Postgres (15+) database:
+--   psql -h localhost -p 5433 -U postgres -d Migraine_Diary_Bench -f benchmarks/sql/notes_search.sql
+--
+-- Seeds 5,000 users with 2 years of daily episodes, and user 1 with 20 years, about 40% of them with notes
+-- drawn from a small vocabulary. The ILIKE scan reads every episode of the user, so it grows twentyfold from
+-- user 2 to user 1. The GIN plans should show a Bitmap Index Scan on idx_search_notes, with buffers that
+-- follow the number of matches rather than the length of the history.
+
+DROP TABLE IF EXISTS episodes_search;
+
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE TABLE episodes_search (
+    episode_id   serial PRIMARY KEY,
+    user_id      integer NOT NULL,
+    episode_date date NOT NULL,
+    notes        varchar(255)
+);
+
+INSERT INTO episodes_search (user_id, episode_date, notes)
+SELECT u, DATE '2023-01-01' + d,
+       CASE WHEN random() < 0.4
+            THEN (ARRAY['Slept badly', 'Red wine at dinner', 'Skipped lunch', 'Long day at work', 'Bright screen all afternoon',
+                        'Weather change, pressure dropping', 'Coffee late in the day', 'Stressful meeting'])[1 + floor(random() * 8)::int]
+                 || ', ' ||
+                 (ARRAY['took it easy', 'went to bed early', 'aura before noon', 'nausea in the evening', 'felt fine by night'])[1 + floor(random() * 5)::int]
+            ELSE '' END
+FROM generate_series(2, 5000) AS u,
+     generate_series(0, 2 * 365 - 1) AS d;
+
+-- The long history
+INSERT INTO episodes_search (user_id, episode_date, notes)
+SELECT 1, DATE '2005-01-01' + d,
+       CASE WHEN random() < 0.4 THEN (ARRAY['Slept badly', 'Red wine at dinner', 'Skipped lunch', 'Stressful meeting'])[1 + floor(random() * 4)::int]
+            ELSE '' END
+FROM generate_series(0, 20 * 365 - 1) AS d;
+
+CREATE UNIQUE INDEX uk_episodes_search_user_date ON episodes_search (user_id, episode_date);
+-- Same shape as idx_episodes_notes_search
+CREATE INDEX idx_search_notes ON episodes_search USING gin (user_id, to_tsvector('english', notes)) WHERE notes <> '';
+VACUUM ANALYZE episodes_search;
+
+\timing on
+
+-- Without the index: every episode of the user is read and matched
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT episode_id, episode_date FROM episodes_search
+WHERE user_id = 2 AND notes ILIKE '%red%' AND notes ILIKE '%wine%';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT episode_id, episode_date FROM episodes_search
+WHERE user_id = 1 AND notes ILIKE '%red%' AND notes ILIKE '%wine%';
+
+-- PostgresNoteSearch's episode half: ranked, one page, snippets only for the page
+EXPLAIN (ANALYZE, BUFFERS)
+WITH query AS (SELECT websearch_to_tsquery('english', 'red wine') AS q),
+page AS (
+    SELECT e.episode_id, e.episode_date, e.notes, ts_rank_cd(to_tsvector('english', e.notes), query.q) AS score
+    FROM episodes_search e, query
+    WHERE e.user_id = 2 AND e.notes <> '' AND to_tsvector('english', e.notes) @@ query.q
+    ORDER BY score DESC, e.episode_date DESC, e.episode_id
+    LIMIT 21
+)
+SELECT page.episode_id, page.episode_date, page.score, ts_headline('english', page.notes, query.q)
+FROM page, query;
+
+EXPLAIN (ANALYZE, BUFFERS)
+WITH query AS (SELECT websearch_to_tsquery('english', 'red wine') AS q),
+page AS (
+    SELECT e.episode_id, e.episode_date, e.notes, ts_rank_cd(to_tsvector('english', e.notes), query.q) AS score
+    FROM episodes_search e, query
+    WHERE e.user_id = 1 AND e.notes <> '' AND to_tsvector('english', e.notes) @@ query.q
+    ORDER BY score DESC, e.episode_date DESC, e.episode_id
+    LIMIT 21
+)
+SELECT page.episode_id, page.episode_date, page.score, ts_headline('english', page.notes, query.q)
+FROM page, query;
+
+-- A term user 1 never wrote: the lookup finds no postings and reads no table pages, however long the history
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT episode_id FROM episodes_search
+WHERE user_id = 1 AND notes <> '' AND to_tsvector('english', notes) @@ websearch_to_tsquery('english', 'aura');
+
+\timing off
+
+DROP TABLE episodes_search;
@@ -0,0 +1,89 @@
+-- Yearly partitions (V2__yearly_partitions.sql): pruning of the per-user range queries, and retiring a year
+-- by DETACH + DROP versus DELETE
+--
+-- Run against a scratch Postgres (15+) database:
+--   psql -h localhost -p 5433 -U postgres -d Migraine_Diary_Bench -f benchmarks/sql/partition_pruning.sql
+--
+-- Seeds 5,000 users x 6 years of daily episodes (~11M rows) into a plain table and a table partitioned by year
+-- with the same indexes. The month query on the partitioned table should show a single partition under the
+-- Append (or "Subplans Removed" for a generic plan), and the DETACH should finish in milliseconds regardless of
+-- how many rows the year holds, where the DELETE rewrites every index entry and leaves the table to vacuum.
+
+DROP TABLE IF EXISTS episodes_plain;
+DROP TABLE IF EXISTS episodes_parted;
+DROP TABLE IF EXISTS episodes_parted_2019;
+
+CREATE TABLE episodes_plain (
+    episode_id       integer NOT NULL,
+    user_id          integer NOT NULL,
+    episode_date     date NOT NULL,
+    trigger_mask     bigint NOT NULL DEFAULT 0,
+    morning_severity integer,
+    evening_severity integer,
+    notes            varchar(255),
+    PRIMARY KEY (episode_id)
+);
+
+CREATE TABLE episodes_parted (
+    LIKE episodes_plain INCLUDING DEFAULTS,
+    PRIMARY KEY (episode_id, episode_date)
+) PARTITION BY RANGE (episode_date);
+
+DO $$
+BEGIN
+    FOR partition_year IN 2019..2025 LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF episodes_parted FOR VALUES FROM (%L) TO (%L)',
+                       'episodes_parted_' || partition_year, make_date(partition_year, 1, 1), make_date(partition_year + 1, 1, 1));
+    END LOOP;
+END $$;
+
+INSERT INTO episodes_plain (episode_id, user_id, episode_date, trigger_mask, morning_severity, evening_severity, notes)
+SELECT row_number() OVER (), u, DATE '2019-01-01' + d, (random() * 1024)::bigint, (random() * 3)::int, (random() * 3)::int, 'seeded'
+FROM generate_series(1, 5000) AS u,
+     generate_series(0, 6 * 365 - 1) AS d;
+
+INSERT INTO episodes_parted SELECT * FROM episodes_plain;
+
+-- Same indexes as Episode's @Table
+CREATE UNIQUE INDEX uk_episodes_plain_user_date ON episodes_plain (user_id, episode_date);
+CREATE INDEX idx_episodes_plain_user_trigger_mask ON episodes_plain (user_id, trigger_mask, episode_id);
+CREATE UNIQUE INDEX uk_episodes_parted_user_date ON episodes_parted (user_id, episode_date);
+CREATE INDEX idx_episodes_parted_user_trigger_mask ON episodes_parted (user_id, trigger_mask, episode_id);
+VACUUM ANALYZE episodes_plain;
+VACUUM ANALYZE episodes_parted;
+
+\timing on
+
+-- Month report (EpisodeRepository.findByUserIdAndDateRange)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM episodes_plain
+WHERE user_id = 2500 AND episode_date >= DATE '2023-06-01' AND episode_date < DATE '2023-07-01'
+ORDER BY episode_date;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM episodes_parted
+WHERE user_id = 2500 AND episode_date >= DATE '2023-06-01' AND episode_date < DATE '2023-07-01'
+ORDER BY episode_date;
+
+-- The JDBC driver switches to a generic plan after five executions; pruning then happens at executor start
+PREPARE month_range(integer, date, date) AS
+SELECT * FROM episodes_parted WHERE user_id = $1 AND episode_date >= $2 AND episode_date < $3 ORDER BY episode_date;
+SET plan_cache_mode = force_generic_plan;
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE month_range(2500, DATE '2023-06-01', DATE '2023-07-01');
+RESET plan_cache_mode;
+DEALLOCATE month_range;
+
+-- Retiring 2019 (~1.8M rows)
+BEGIN;
+DELETE FROM episodes_plain WHERE episode_date < DATE '2020-01-01';
+ROLLBACK;
+
+BEGIN;
+ALTER TABLE episodes_parted DETACH PARTITION episodes_parted_2019;
+DROP TABLE episodes_parted_2019;
+COMMIT;
+
+\timing off
+
+DROP TABLE episodes_plain;
+DROP TABLE episodes_parted;
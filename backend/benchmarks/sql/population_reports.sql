@@ -0,0 +1,80 @@
+-- Admin population reports at 10^7 episodes: the grouped queries PopulationAnalyticsRepository issues
+--
+-- Run against a scratch Postgres database:
+--   psql -h localhost -p 5433 -U postgres -d Migraine_Diary_Bench -f benchmarks/sql/population_reports.sql
+--
+-- Seeds 10,000 users x ~3 years of daily episodes (~11M rows) with 0-3 medicine logs each, builds the
+-- same indexes as the entities, then times each report. Each should be an index-only scan feeding a
+-- HashAggregate and finish inside PopulationAnalyticsRepository.QUERY_TIMEOUT_MS (5 s).
+
+DROP TABLE IF EXISTS medicine_daily_log_bench;
+DROP TABLE IF EXISTS episodes_bench;
+
+CREATE TABLE episodes_bench (
+    episode_id         serial PRIMARY KEY,
+    username           varchar(255),
+    episode_date       date,
+    trigger_mask       bigint NOT NULL DEFAULT 0,
+    menstrual_period   boolean NOT NULL DEFAULT false,
+    morning_severity   integer NOT NULL,
+    afternoon_severity integer NOT NULL,
+    evening_severity   integer NOT NULL
+);
+
+INSERT INTO episodes_bench (username, episode_date, trigger_mask, morning_severity, afternoon_severity, evening_severity)
+SELECT 'user' || u,
+       DATE '2022-01-01' + d,
+       CASE WHEN random() < 0.4 THEN 0 ELSE (1::bigint << (random() * 31)::int) | (1::bigint << (random() * 31)::int) END,
+       (random() * 3)::int,
+       (random() * 3)::int,
+       (random() * 3)::int
+FROM generate_series(1, 10000) AS u,
+     generate_series(0, 1094) AS d;
+
+CREATE TABLE medicine_daily_log_bench (
+    medicince_log_id bigserial PRIMARY KEY,
+    episode_id       integer NOT NULL,
+    medicine_name    varchar(255),
+    relief           integer
+);
+
+INSERT INTO medicine_daily_log_bench (episode_id, medicine_name, relief)
+SELECT e.episode_id,
+       (ARRAY['ibuprofen', 'sumatriptan', 'rizatriptan', 'naproxen', 'paracetamol'])[(random() * 4)::int + 1],
+       CASE WHEN random() < 0.2 THEN NULL ELSE (random() * 3)::int END
+FROM episodes_bench e, generate_series(1, 3) AS n
+WHERE random() < 0.4;
+
+-- Same indexes as Episode's and MedicineDailyLog's @Table(indexes = ...)
+CREATE INDEX idx_episodes_bench_username_trigger_mask ON episodes_bench (username, trigger_mask, episode_id);
+CREATE INDEX idx_episodes_bench_severities ON episodes_bench (morning_severity, afternoon_severity, evening_severity);
+CREATE INDEX idx_medicine_daily_log_bench_name_relief ON medicine_daily_log_bench (medicine_name, relief);
+-- Sets the visibility map so the scans below can stay index-only
+VACUUM ANALYZE episodes_bench;
+VACUUM ANALYZE medicine_daily_log_bench;
+
+\timing on
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT morning_severity, afternoon_severity, evening_severity, count(*)
+FROM episodes_bench
+GROUP BY morning_severity, afternoon_severity, evening_severity;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT trigger_mask, count(*)
+FROM episodes_bench
+WHERE trigger_mask <> 0
+GROUP BY trigger_mask;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT medicine_name, count(*), count(relief), avg(relief)
+FROM medicine_daily_log_bench
+WHERE medicine_name IS NOT NULL
+GROUP BY medicine_name
+ORDER BY count(*) DESC, medicine_name
+LIMIT 100;
+
+\timing off
+
+DROP TABLE medicine_daily_log_bench;
+DROP TABLE episodes_bench;
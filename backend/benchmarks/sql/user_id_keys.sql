@@ -0,0 +1,174 @@
+-- username varchar vs. integer user_id as the owner key of episodes and medicine_daily_log (006_user_id_keys.sql)
+--
+-- Run against a scratch Postgres database:
+--   psql -h localhost -p 5433 -U postgres -d Migraine_Diary_Bench -f benchmarks/sql/user_id_keys.sql
+--
+-- Seeds 5,000 users x ~3 years of daily episodes (~5.5M rows) with 0-3 medicine logs each, once in the old
+-- layout (username on both tables) and once in the new one (user_id), with each layout's indexes. Then it
+-- reports table and index sizes and times the three per-user queries EpisodeRepository issues most.
+--
+-- Expected sizes, computed from the on-disk B-tree layout rather than measured here (8-byte index tuple
+-- header, MAXALIGN 8, 4-byte line pointer, leaf pages 90% full; 'user1234' is a 9-byte varchar plus a
+-- 1-byte header):
+--   (username, episode_date)                     24 + 4 = 28 bytes/entry  ~170 MB at 5.5M rows
+--   (user_id, episode_date)                      16 + 4 = 20 bytes/entry  ~122 MB            (-29%)
+--   (username, trigger_mask, episode_id)         40 + 4 = 44 bytes/entry  ~268 MB
+--   (user_id, trigger_mask, episode_id)          32 + 4 = 36 bytes/entry  ~219 MB            (-18%)
+-- Heap rows lose the varchar (10 bytes here, more for longer usernames) and gain 4 bytes; whether that
+-- saves a whole alignment step depends on the neighbouring columns, so compare the reported sizes.
+-- Range scans read fewer index pages in proportion, and integer comparisons skip collation-aware
+-- string comparison, which matters most for the whole-history scan.
+
+DROP TABLE IF EXISTS medicine_daily_log_before;
+DROP TABLE IF EXISTS episodes_before;
+DROP TABLE IF EXISTS medicine_daily_log_after;
+DROP TABLE IF EXISTS episodes_after;
+DROP TABLE IF EXISTS users_bench;
+
+CREATE TABLE users_bench (
+    user_id  serial PRIMARY KEY,
+    username varchar(255) NOT NULL
+);
+
+INSERT INTO users_bench (username)
+SELECT 'user' || u FROM generate_series(1, 5000) AS u;
+
+-- Before: username on every row
+CREATE TABLE episodes_before (
+    episode_id         serial PRIMARY KEY,
+    username           varchar(255),
+    episode_date       date,
+    trigger_mask       bigint NOT NULL DEFAULT 0,
+    menstrual_period   boolean NOT NULL DEFAULT false,
+    morning_severity   integer NOT NULL,
+    afternoon_severity integer NOT NULL,
+    evening_severity   integer NOT NULL,
+    notes              varchar(255)
+);
+
+INSERT INTO episodes_before (username, episode_date, trigger_mask, morning_severity, afternoon_severity, evening_severity, notes)
+SELECT u.username,
+       DATE '2022-01-01' + d,
+       CASE WHEN random() < 0.4 THEN 0 ELSE (1::bigint << (random() * 31)::int) | (1::bigint << (random() * 31)::int) END,
+       (random() * 3)::int,
+       (random() * 3)::int,
+       (random() * 3)::int,
+       'seeded'
+FROM users_bench u,
+     generate_series(0, 1094) AS d;
+
+CREATE TABLE medicine_daily_log_before (
+    medicince_log_id bigserial PRIMARY KEY,
+    episode_id       integer NOT NULL,
+    username         varchar(255),
+    medicine_name    varchar(255),
+    dose             varchar(255),
+    relief           integer
+);
+
+INSERT INTO medicine_daily_log_before (episode_id, username, medicine_name, dose, relief)
+SELECT e.episode_id,
+       e.username,
+       (ARRAY['ibuprofen', 'sumatriptan', 'rizatriptan', 'naproxen', 'paracetamol'])[(random() * 4)::int + 1],
+       '1 tablet',
+       (random() * 3)::int
+FROM episodes_before e, generate_series(1, 3) AS n
+WHERE random() < 0.4;
+
+-- After: the same rows keyed by user_id, as 006_user_id_keys.sql leaves them
+CREATE TABLE episodes_after (
+    episode_id         serial PRIMARY KEY,
+    user_id            integer NOT NULL REFERENCES users_bench (user_id),
+    episode_date       date,
+    trigger_mask       bigint NOT NULL DEFAULT 0,
+    menstrual_period   boolean NOT NULL DEFAULT false,
+    morning_severity   integer NOT NULL,
+    afternoon_severity integer NOT NULL,
+    evening_severity   integer NOT NULL,
+    notes              varchar(255)
+);
+
+INSERT INTO episodes_after (episode_id, user_id, episode_date, trigger_mask, menstrual_period,
+                            morning_severity, afternoon_severity, evening_severity, notes)
+SELECT e.episode_id, u.user_id, e.episode_date, e.trigger_mask, e.menstrual_period,
+       e.morning_severity, e.afternoon_severity, e.evening_severity, e.notes
+FROM episodes_before e JOIN users_bench u ON u.username = e.username
+ORDER BY e.episode_id;
+
+CREATE TABLE medicine_daily_log_after (
+    medicince_log_id bigserial PRIMARY KEY,
+    episode_id       integer NOT NULL,
+    user_id          integer NOT NULL REFERENCES users_bench (user_id),
+    medicine_name    varchar(255),
+    dose             varchar(255),
+    relief           integer
+);
+
+INSERT INTO medicine_daily_log_after (medicince_log_id, episode_id, user_id, medicine_name, dose, relief)
+SELECT m.medicince_log_id, m.episode_id, e.user_id, m.medicine_name, m.dose, m.relief
+FROM medicine_daily_log_before m JOIN episodes_after e ON e.episode_id = m.episode_id
+ORDER BY m.medicince_log_id;
+
+-- Each layout's indexes, as declared on Episode's and MedicineDailyLog's @Table
+CREATE UNIQUE INDEX uk_episodes_before_username_date ON episodes_before (username, episode_date);
+CREATE INDEX idx_episodes_before_username_trigger_mask ON episodes_before (username, trigger_mask, episode_id);
+CREATE INDEX idx_medicine_daily_log_before_episode ON medicine_daily_log_before (episode_id);
+CREATE UNIQUE INDEX uk_episodes_after_user_date ON episodes_after (user_id, episode_date);
+CREATE INDEX idx_episodes_after_user_trigger_mask ON episodes_after (user_id, trigger_mask, episode_id);
+CREATE INDEX idx_medicine_daily_log_after_episode ON medicine_daily_log_after (episode_id);
+VACUUM ANALYZE episodes_before;
+VACUUM ANALYZE medicine_daily_log_before;
+VACUUM ANALYZE episodes_after;
+VACUUM ANALYZE medicine_daily_log_after;
+
+SELECT relname, pg_size_pretty(pg_relation_size(oid)) AS size, pg_relation_size(oid) AS bytes
+FROM pg_class
+WHERE relname IN ('episodes_before', 'medicine_daily_log_before',
+                  'uk_episodes_before_username_date', 'idx_episodes_before_username_trigger_mask',
+                  'episodes_after', 'medicine_daily_log_after',
+                  'uk_episodes_after_user_date', 'idx_episodes_after_user_trigger_mask')
+ORDER BY relname;
+
+\timing on
+
+-- Month view (EpisodeRepository.findByUserIdAndDateRange); the service resolves 'user2500' to its id first
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM episodes_before
+WHERE username = 'user2500' AND episode_date >= DATE '2023-06-01' AND episode_date < DATE '2023-07-01'
+ORDER BY episode_date;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM episodes_after
+WHERE user_id = (SELECT user_id FROM users_bench WHERE username = 'user2500')
+  AND episode_date >= DATE '2023-06-01' AND episode_date < DATE '2023-07-01'
+ORDER BY episode_date;
+
+-- Whole history with medicine logs (EpisodeRepository.streamByUserId, the export and the analytics pass)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT e.episode_date, e.trigger_mask, m.medicine_name, m.relief
+FROM episodes_before e LEFT JOIN medicine_daily_log_before m ON m.episode_id = e.episode_id
+WHERE e.username = 'user2500'
+ORDER BY e.episode_date;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT e.episode_date, e.trigger_mask, m.medicine_name, m.relief
+FROM episodes_after e LEFT JOIN medicine_daily_log_after m ON m.episode_id = e.episode_id
+WHERE e.user_id = (SELECT user_id FROM users_bench WHERE username = 'user2500')
+ORDER BY e.episode_date;
+
+-- Episodes with a trigger (EpisodeRepository.findIdsByUserIdAndTrigger), index-only on both layouts
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT episode_id FROM episodes_before
+WHERE username = 'user2500' AND (trigger_mask & 16) <> 0;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT episode_id FROM episodes_after
+WHERE user_id = (SELECT user_id FROM users_bench WHERE username = 'user2500') AND (trigger_mask & 16) <> 0;
+
+\timing off
+
+DROP TABLE medicine_daily_log_before;
+DROP TABLE episodes_before;
+DROP TABLE medicine_daily_log_after;
+DROP TABLE episodes_after;
+DROP TABLE users_bench;
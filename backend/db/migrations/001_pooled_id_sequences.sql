@@ -0,0 +1,15 @@
+-- Pooled sequences for episode and medicine log ids (replaces IDENTITY so inserts can be JDBC-batched).
+--
+-- Run once against the existing database BEFORE deploying the build that switches Episode and
+-- MedicineDailyLog to GenerationType.SEQUENCE; otherwise ddl-auto=update creates the sequences
+-- starting at 1 and new ids collide with existing rows.
+--
+-- INCREMENT BY must match allocationSize (50) on the @SequenceGenerator mappings. Hibernate's pooled
+-- optimizer treats each sequence value as the top of a block of 50 ids, so the first value handed
+-- out must be MAX(id) + 50 for the block to start right after the existing rows.
+
+CREATE SEQUENCE IF NOT EXISTS episodes_seq INCREMENT BY 50;
+SELECT setval('episodes_seq', COALESCE((SELECT MAX(episode_id) FROM episodes), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS medicine_daily_log_seq INCREMENT BY 50;
+SELECT setval('medicine_daily_log_seq', COALESCE((SELECT MAX(medicince_log_id) FROM medicine_daily_log), 0) + 50, false);
@@ -0,0 +1,24 @@
+-- Trigger ids move from the episodes.trigger_ids integer[] column to a bigint bitmask, bit (id - 1) per trigger
+-- (see TriggerMask), indexed together with username so "episodes with trigger X" is an index lookup.
+--
+-- Run once against the existing database BEFORE deploying the build that maps Episode.triggerMask; ddl-auto=update
+-- would otherwise add an empty trigger_mask column and every existing episode would lose its triggers.
+--
+-- Only ids 1..64 fit the mask. The first statement aborts the migration if any row holds anything else.
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM episodes, unnest(trigger_ids) AS t(id) WHERE t.id IS NOT NULL AND (t.id < 1 OR t.id > 64)) THEN
+        RAISE EXCEPTION 'episodes.trigger_ids holds ids outside 1..64; fix them before migrating';
+    END IF;
+END $$;
+
+ALTER TABLE episodes ADD COLUMN IF NOT EXISTS trigger_mask bigint NOT NULL DEFAULT 0;
+
+UPDATE episodes e
+SET trigger_mask = (SELECT COALESCE(bit_or(1::bigint << (t.id - 1)), 0) FROM unnest(e.trigger_ids) AS t(id) WHERE t.id IS NOT NULL)
+WHERE e.trigger_ids IS NOT NULL AND cardinality(e.trigger_ids) > 0;
+
+CREATE INDEX IF NOT EXISTS idx_episodes_username_trigger_mask ON episodes (username, trigger_mask, episode_id);
+
+ALTER TABLE episodes DROP COLUMN trigger_ids;
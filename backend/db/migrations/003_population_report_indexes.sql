@@ -0,0 +1,15 @@
+-- Indexes behind the admin population reports (PopulationAnalyticsRepository). Each report is one GROUP BY
+-- over the whole table; with its group key indexed Postgres can answer it with an index-only scan instead
+-- of reading every heap page. The trigger report uses idx_episodes_username_trigger_mask from 002.
+--
+-- ddl-auto=update would create these with a plain CREATE INDEX, locking writes for the whole build on a
+-- large table. Run this first; CONCURRENTLY can't run inside a transaction, so execute it statement by
+-- statement (e.g. psql without --single-transaction).
+--
+-- Index-only scans depend on the visibility map, so keep autovacuum on for both tables.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_episodes_severities
+    ON episodes (morning_severity, afternoon_severity, evening_severity);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_medicine_daily_log_name_relief
+    ON medicine_daily_log (medicine_name, relief);
@@ -0,0 +1,15 @@
+-- One episode per user and day, enforced by uk_episodes_username_date (Episode's @Table uniqueConstraints).
+-- saveEpisode now updates the day's episode when it exists, so the constraint is only hit by two first
+-- writes for the same day racing each other. Its index also serves every (username, episode_date)
+-- lookup, which makes idx_episodes_username_date redundant.
+--
+-- Run before deploying the build that declares the constraint. It fails if a day is already logged
+-- twice; merge or delete the duplicates first:
+--   SELECT username, episode_date, count(*) FROM episodes GROUP BY 1, 2 HAVING count(*) > 1;
+--
+-- CONCURRENTLY can't run inside a transaction, so execute it statement by statement.
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_episodes_username_date ON episodes (username, episode_date);
+ALTER TABLE episodes ADD CONSTRAINT uk_episodes_username_date UNIQUE USING INDEX uk_episodes_username_date;
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_episodes_username_date;
@@ -0,0 +1,8 @@
+-- Postgres doesn't index foreign keys by itself, so every join from an episode to its medicine logs
+-- (batch fetches, the CSV export in EpisodeExportService) scanned the whole medicine_daily_log table.
+--
+-- ddl-auto=update would build this with a plain CREATE INDEX, locking writes for the whole build. Run it
+-- first, outside a transaction (CONCURRENTLY can't run inside one).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_medicine_daily_log_episode
+    ON medicine_daily_log (episode_id);
@@ -0,0 +1,52 @@
+-- episodes and medicine_daily_log are owned through an integer user_id foreign key to users instead of a copy
+-- of the username string. EpisodeService resolves the username to its id once per request (through the
+-- cached UserRepository.findByUsername), so every per-user index and join compares 4-byte integers.
+-- Both unique/covering indexes are rebuilt on user_id; see benchmarks/sql/user_id_keys.sql for sizes.
+--
+-- Run BEFORE deploying the build that maps Episode.userId; ddl-auto=update would otherwise try to add a
+-- NOT NULL user_id column to tables that already have rows. The first block aborts if a username is
+-- ambiguous or has no user to point at; fix those rows first:
+--   SELECT username, count(*) FROM users GROUP BY 1 HAVING count(*) > 1;
+--   SELECT DISTINCT e.username FROM episodes e LEFT JOIN users u ON u.username = e.username WHERE u.user_id IS NULL;
+--
+-- CONCURRENTLY can't run inside a transaction, so execute it statement by statement.
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM users GROUP BY username HAVING count(*) > 1) THEN
+        RAISE EXCEPTION 'users.username is not unique; merge the duplicate users before migrating';
+    END IF;
+    IF EXISTS (SELECT 1 FROM episodes e WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.username = e.username)) THEN
+        RAISE EXCEPTION 'episodes reference usernames with no user; delete or reassign them before migrating';
+    END IF;
+END $$;
+
+ALTER TABLE episodes ADD COLUMN IF NOT EXISTS user_id integer;
+ALTER TABLE medicine_daily_log ADD COLUMN IF NOT EXISTS user_id integer;
+
+UPDATE episodes e SET user_id = u.user_id FROM users u WHERE u.username = e.username AND e.user_id IS NULL;
+-- A log belongs to its episode's owner, whatever username was copied onto it
+UPDATE medicine_daily_log m SET user_id = e.user_id FROM episodes e WHERE e.episode_id = m.episode_id AND m.user_id IS NULL;
+
+ALTER TABLE episodes ALTER COLUMN user_id SET NOT NULL;
+ALTER TABLE medicine_daily_log ALTER COLUMN user_id SET NOT NULL;
+
+-- NOT VALID adds the constraint without a table scan under lock; VALIDATE then checks existing rows
+-- while only holding SHARE UPDATE EXCLUSIVE, so writes keep going
+ALTER TABLE episodes ADD CONSTRAINT fk_episodes_user FOREIGN KEY (user_id) REFERENCES users (user_id) NOT VALID;
+ALTER TABLE episodes VALIDATE CONSTRAINT fk_episodes_user;
+ALTER TABLE medicine_daily_log ADD CONSTRAINT fk_medicine_daily_log_user FOREIGN KEY (user_id) REFERENCES users (user_id) NOT VALID;
+ALTER TABLE medicine_daily_log VALIDATE CONSTRAINT fk_medicine_daily_log_user;
+
+-- Replaces uk_episodes_username_date (004) and idx_episodes_username_trigger_mask (002)
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_episodes_user_date ON episodes (user_id, episode_date);
+ALTER TABLE episodes ADD CONSTRAINT uk_episodes_user_date UNIQUE USING INDEX uk_episodes_user_date;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_episodes_user_trigger_mask ON episodes (user_id, trigger_mask, episode_id);
+
+ALTER TABLE episodes DROP CONSTRAINT IF EXISTS uk_episodes_username_date;
+DROP INDEX CONCURRENTLY IF EXISTS idx_episodes_username_trigger_mask;
+
+-- Dropping a column only hides it; the space comes back as rows are rewritten. To reclaim it at once, run
+-- VACUUM FULL (takes an exclusive lock) or pg_repack on both tables in a maintenance window.
+ALTER TABLE episodes DROP COLUMN username;
+ALTER TABLE medicine_daily_log DROP COLUMN username;
@@ -0,0 +1,36 @@
+package com.example.backend;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.io.File;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// JMH entry point that accepts the usual JMH command line but writes JSON results to
+// jmh/results/<timestamp>.json by default, so runs can be compared between releases. The path is relative to the
+// working directory, backend/ when run as documented in jmh/pom.xml; -Djmh.results=<dir> picks another directory.
+public class BenchmarkMain {
+
+    static final String RESULTS_DIR = System.getProperty("jmh.results", "jmh/results");
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            File results = new File(RESULTS_DIR);
+            results.mkdirs();
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            options.result(new File(results, timestamp + ".json").getPath());
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.example.backend.MedicineDailyLog.MedicineDailyLog;
+import com.example.backend.Users.UserAccount;
+
+// Deterministic, realistically shaped diary data shared by the benchmarks
+final class EpisodeFixtures {
+
+    static final String USERNAME = "bench";
+
+    private static final String[] MEDICINES = { "ibuprofen", "sumatriptan", "rizatriptan", "naproxen", "paracetamol" };
+
+    private EpisodeFixtures() {
+    }
+
+    // The USERNAME account as prepareForSave sees it; the id is only copied, never looked up
+    static UserAccount owner() {
+        return new UserAccount(1, USERNAME, "bench");
+    }
+
+    // One episode per day from start, each with 0-5 medicine logs, as the client posts them (no ids, no timestamps)
+    static List<Episode> days(LocalDate start, int days, long seed) {
+        Random random = new Random(seed);
+        List<Episode> episodes = new ArrayList<>(days);
+        for (int day = 0; day < days; day++) {
+            Episode episode = new Episode();
+            episode.setUsername(USERNAME);
+            episode.setEpisodeDate(start.plusDays(day));
+            episode.setTriggerIds(triggers(random));
+            episode.setMenstrualPeriod(random.nextInt(28) < 5);
+            episode.setMorningSeverity(random.nextInt(11));
+            episode.setAfternoonSeverity(random.nextInt(11));
+            episode.setEveningSeverity(random.nextInt(11));
+            episode.setNotes(random.nextBoolean() ? "Slept badly, skipped lunch and had a long day at work." : "");
+            int logs = random.nextInt(6);
+            for (int i = 0; i < logs; i++) {
+                MedicineDailyLog medicine = new MedicineDailyLog();
+                medicine.setMedicineName(MEDICINES[random.nextInt(MEDICINES.length)]);
+                medicine.setDose((random.nextInt(4) + 1) * 100 + "mg");
+                medicine.setRelief(random.nextInt(5));
+                medicine.setNotes(random.nextBoolean() ? "Took with food" : null);
+                medicine.setEpisode(episode);
+                episode.getMedicineLogs().add(medicine);
+            }
+            episodes.add(episode);
+        }
+        return episodes;
+    }
+
+    // The view the month endpoints would build for episode from its rows
+    static EpisodeView view(Episode episode) {
+        List<MedicineLogView> logs = new ArrayList<>(episode.getMedicineLogs().size());
+        for (MedicineDailyLog log : episode.getMedicineLogs()) {
+            logs.add(new MedicineLogView(log.getId(), log.getMedicineLogDate(), log.getMedicineName(), log.getDose(),
+                    log.getRelief(), log.getTimeTaken(), log.getNotes(), log.getCreatedAt(), log.getUpdatedAt()));
+        }
+        return new EpisodeView(episode.getEpisodeId(), episode.getUsername(), episode.getEpisodeDate(),
+                episode.getTriggerMask(), episode.isMenstrualPeriod(), episode.getMorningSeverity(),
+                episode.getAfternoonSeverity(), episode.getEveningSeverity(), episode.getNotes(), List.copyOf(logs));
+    }
+
+    private static int[] triggers(Random random) {
+        int[] triggers = new int[random.nextInt(4)];
+        for (int i = 0; i < triggers.length; i++) {
+            triggers[i] = random.nextInt(32) + 1;
+        }
+        return triggers;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.backend.MigraineDiaryApplication;
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Month report requests end to end, query plus JSON body, through the managed-entity path (EpisodeRepository
+// with its @EntityGraph) and the EpisodeView projection path, for one month and for the twelve months of a
+// year as the report page fetches them, against an embedded H2 database seeded with three years of one
+// user's diary. One op is all the months. Run with -prof gc for bytes allocated per op (gc.alloc.rate.norm):
+//   java -jar jmh/target/benchmarks.jar EpisodeReadModelBenchmark -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EpisodeReadModelBenchmark {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2022, 1, 1);
+
+    // 1 = June 2023, 12 = every month of 2023
+    @Param({ "1", "12" })
+    public int months;
+
+    private ConfigurableApplicationContext context;
+    private EpisodeService episodeService;
+    private ObjectMapper objectMapper;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(MigraineDiaryApplication.class)
+                .web(WebApplicationType.NONE)
+                // command-line arguments so they win over the packaged application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.flyway.enabled=false",
+                        "--partitions.enabled=false",
+                        "--search.mode=scan",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.web=WARN",
+                        "--logging.level.com.example.backend=WARN");
+        episodeService = context.getBean(EpisodeService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        context.getBean(UserRepository.class).save(new User(EpisodeFixtures.USERNAME, "bench", "bench@example.com", false));
+        for (Episode episode : EpisodeFixtures.days(FIRST_DAY, 3 * 365, 11)) {
+            episodeService.saveEpisode(episode);
+        }
+        startDate = months == 1 ? LocalDate.of(2023, 6, 1) : LocalDate.of(2023, 1, 1);
+        endDate = startDate.plusMonths(months);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public void entities(Blackhole blackhole) throws JsonProcessingException {
+        for (LocalDate month = startDate; month.isBefore(endDate); month = month.plusMonths(1)) {
+            List<Episode> episodes = episodeService.getUserEpisodesByMonth(EpisodeFixtures.USERNAME, month.getYear(), month.getMonthValue());
+            blackhole.consume(objectMapper.writeValueAsBytes(episodes));
+        }
+    }
+
+    @Benchmark
+    public void views(Blackhole blackhole) throws JsonProcessingException {
+        for (LocalDate month = startDate; month.isBefore(endDate); month = month.plusMonths(1)) {
+            List<EpisodeView> episodes = episodeService.getEpisodeViewsBetween(EpisodeFixtures.USERNAME, month, month.plusMonths(1));
+            blackhole.consume(objectMapper.writeValueAsBytes(episodes));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.backend.MigraineDiaryApplication;
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserRepository;
+
+// Episode read paths end to end through the service and repository against an embedded H2 database
+// seeded with three years of one user's diary
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EpisodeRepositoryBenchmark {
+
+    private static final int DAYS = 3 * 365;
+
+    private ConfigurableApplicationContext context;
+    private EpisodeService episodeService;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(MigraineDiaryApplication.class)
+                .web(WebApplicationType.NONE)
+                // command-line arguments so they win over the packaged application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.flyway.enabled=false",
+                        "--partitions.enabled=false",
+                        "--search.mode=scan",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.web=WARN",
+                        "--logging.level.com.example.backend=WARN");
+        episodeService = context.getBean(EpisodeService.class);
+
+        context.getBean(UserRepository.class).save(new User(EpisodeFixtures.USERNAME, "bench", "bench@example.com", false));
+        for (Episode episode : EpisodeFixtures.days(LocalDate.of(2022, 1, 1), DAYS, 11)) {
+            episodeService.saveEpisode(episode);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Episode> month() {
+        return episodeService.getUserEpisodesByMonth(EpisodeFixtures.USERNAME, 2023, 6);
+    }
+
+    @Benchmark
+    public YearHeatmap yearHeatmap() {
+        return episodeService.getYearHeatmap(EpisodeFixtures.USERNAME, 2023);
+    }
+
+    @Benchmark
+    public EpisodePage firstPage() {
+        return episodeService.getEpisodePage(EpisodeFixtures.USERNAME, null, EpisodeService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Episode> fullHistory() {
+        return episodeService.getEpisodesPerUser(EpisodeFixtures.USERNAME);
+    }
+}
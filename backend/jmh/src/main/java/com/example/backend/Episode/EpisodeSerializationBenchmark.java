@@ -0,0 +1,50 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.example.backend.Users.UserAccount;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+// Jackson serialization of the monthly report payload: Episode with its @JsonManagedReference medicineLogs
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EpisodeSerializationBenchmark {
+
+    // 31 = one month as served by /month/{y}/{m}, 365 = a year
+    @Param({ "31", "365" })
+    public int days;
+
+    private ObjectMapper objectMapper;
+    private List<Episode> episodes;
+
+    @Setup
+    public void setUp() {
+        // Same shape as Spring Boot's auto-configured mapper
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        episodes = EpisodeFixtures.days(LocalDate.of(2024, 1, 1), days, 42);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 8, 0);
+        UserAccount owner = EpisodeFixtures.owner();
+        for (Episode episode : episodes) {
+            EpisodeService.prepareForSave(episode, owner, now);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(episodes);
+    }
+}
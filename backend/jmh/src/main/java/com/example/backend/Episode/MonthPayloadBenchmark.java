@@ -0,0 +1,78 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.backend.Users.UserAccount;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+// A year of monthly report payloads, as the report page fetches them month by month, in each MonthReportFormat.
+// Serialization time is the score; the total payload size per format is printed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonthPayloadBenchmark {
+
+    @Param({ "JSON", "COLUMNAR_CBOR" })
+    public MonthReportFormat format;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper cborMapper;
+    private List<List<EpisodeView>> months;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        // Same shape as Spring Boot's auto-configured mapper
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        cborMapper = new CBORMapper();
+
+        List<Episode> year = EpisodeFixtures.days(LocalDate.of(2024, 1, 1), 366, 42);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 8, 0);
+        UserAccount owner = EpisodeFixtures.owner();
+        months = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            months.add(new ArrayList<>());
+        }
+        for (Episode episode : year) {
+            EpisodeService.prepareForSave(episode, owner, now);
+            months.get(episode.getEpisodeDate().getMonthValue() - 1).add(EpisodeFixtures.view(episode));
+        }
+
+        long bytes = 0;
+        for (int month = 1; month <= 12; month++) {
+            bytes += serialize(month).length;
+        }
+        System.out.println(format + " payload for a year of months: " + bytes + " bytes");
+    }
+
+    @Benchmark
+    public void year(Blackhole blackhole) throws JsonProcessingException {
+        for (int month = 1; month <= 12; month++) {
+            blackhole.consume(serialize(month));
+        }
+    }
+
+    // Mirrors MonthReportService.serialize
+    private byte[] serialize(int month) throws JsonProcessingException {
+        List<EpisodeView> episodes = months.get(month - 1);
+        return switch (format) {
+            case JSON -> objectMapper.writeValueAsBytes(episodes);
+            case COLUMNAR_CBOR -> cborMapper.writeValueAsBytes(MonthColumns.of(2024, month, episodes));
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.example.backend.MedicineDailyLog.MedicineDailyLog;
+import com.example.backend.Users.UserAccount;
+
+// saveEpisode's preprocessing: back-references plus LocalDateTime.now()/LocalTime.now() stamps on every medicine log.
+// Each invocation prepares one month of episodes, as posted by the client. A fresh month is needed per call so every
+// call takes the same defaulting branches, and resetting one per invocation (Level.Invocation) would cost as much as
+// the work measured; so each iteration is a fixed batch of MONTHS invocations over months whose stamps are cleared
+// beforehand, and the score is the time for the whole batch.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = PrepareForSaveBenchmark.MONTHS)
+@Measurement(iterations = 20, batchSize = PrepareForSaveBenchmark.MONTHS)
+@Fork(1)
+public class PrepareForSaveBenchmark {
+
+    static final int MONTHS = 1000;
+
+    private Episode[][] months;
+    private UserAccount owner;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createMonths() {
+        owner = EpisodeFixtures.owner();
+        months = new Episode[MONTHS][];
+        for (int i = 0; i < MONTHS; i++) {
+            months[i] = EpisodeFixtures.days(LocalDate.of(2024, 3, 1), 31, 7).toArray(new Episode[0]);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clearStamps() {
+        for (Episode[] month : months) {
+            for (Episode episode : month) {
+                for (MedicineDailyLog medicine : episode.getMedicineLogs()) {
+                    medicine.setMedicineLogDate(null);
+                    medicine.setTimeTaken(null);
+                }
+            }
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public Episode[] prepareMonth() {
+        LocalDateTime now = LocalDateTime.now();
+        Episode[] month = months[next++];
+        for (Episode episode : month) {
+            EpisodeService.prepareForSave(episode, owner, now);
+        }
+        return month;
+    }
+}
@@ -0,0 +1,42 @@
+#!/usr/bin/env bash
+# Runs threading-compare.js against the backend twice, once on platform threads and once with the
+# virtual-threads profile, and keeps both k6 summaries side by side in loadtest/results/.
+#
+#   ./loadtest/compare-threading.sh [username]
+#
+# Needs a Java 21+ runtime (virtual threads are ignored on 17), k6 on the PATH, and the Postgres
+# database from application.properties with the given user's diary already seeded.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+USERNAME="${1:-alice}"
+RESULTS=loadtest/results
+mkdir -p "$RESULTS"
+
+./mvnw -q -DskipTests package
+JAR=$(ls target/*-exec.jar | head -n 1)
+
+run_mode() {
+  local mode=$1 profile=$2
+  echo "== $mode threads"
+  java -Djdk.tracePinnedThreads=short -jar "$JAR" --spring.profiles.active="$profile" \
+    > "$RESULTS/$mode-server.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+  until curl -sf http://localhost:8080/actuator/health > /dev/null; do sleep 1; done
+
+  k6 run -e BASE_URL=http://localhost:8080 -e USERNAME="$USERNAME" -e MODE="$mode" \
+    --summary-export "$RESULTS/$mode-summary.json" loadtest/threading-compare.js
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+}
+
+run_mode platform default
+run_mode virtual virtual-threads
+
+if grep -q "onPinned\|pinned" "$RESULTS/virtual-server.log"; then
+  echo "WARNING: pinned virtual threads were reported, see $RESULTS/virtual-server.log"
+fi
+echo "Summaries written to $RESULTS/platform-summary.json and $RESULTS/virtual-summary.json"
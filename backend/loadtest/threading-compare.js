@@ -0,0 +1,82 @@
+// Platform vs. virtual thread comparison for the monthly report and log endpoints.
+//
+// Normally driven by compare-threading.sh, which starts the backend once per mode and
+// runs this script against it. Standalone:
+//   k6 run -e BASE_URL=http://localhost:8080 -e USERNAME=alice -e MODE=platform loadtest/threading-compare.js
+//
+// Ramps concurrent users well past Tomcat's default 200 worker threads so the platform
+// mode saturates; reads and writes are tagged separately for sizing.
+
+import http from 'k6/http';
+import { check } from 'k6';
+import exec from 'k6/execution';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const USERNAME = __ENV.USERNAME || 'alice';
+const MODE = __ENV.MODE || 'unknown';
+
+export const options = {
+  tags: { mode: MODE },
+  scenarios: {
+    monthlyReports: {
+      executor: 'ramping-vus',
+      exec: 'readMonth',
+      stages: [
+        { duration: '30s', target: 100 },
+        { duration: '60s', target: 1000 },
+        { duration: '60s', target: 1000 },
+        { duration: '15s', target: 0 },
+      ],
+    },
+    logging: {
+      executor: 'ramping-vus',
+      exec: 'logEpisode',
+      stages: [
+        { duration: '30s', target: 20 },
+        { duration: '60s', target: 200 },
+        { duration: '60s', target: 200 },
+        { duration: '15s', target: 0 },
+      ],
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function readMonth() {
+  const month = (exec.scenario.iterationInTest % 12) + 1;
+  const res = http.get(`${BASE_URL}/episodes/user/${USERNAME}/month/2024/${month}`, { tags: { name: 'month' } });
+  check(res, { 'month 200': (r) => r.status === 200 });
+}
+
+const LOAD_USERS = 200;
+
+// One diary user per logging VU (the logging scenario peaks at LOAD_USERS VUs); 409 just means they exist
+export function setup() {
+  for (let i = 1; i <= LOAD_USERS; i++) {
+    http.post(`${BASE_URL}/user/register`,
+      JSON.stringify({ username: `load-${i}`, password: 'load-test', email: `load-${i}@example.com` }),
+      { headers: { 'Content-Type': 'application/json' }, tags: { name: 'setup' } });
+  }
+}
+
+// Each VU walks forward one day per iteration; dates left over from an earlier run come back as
+// 400 duplicates, which still exercise the full write path
+export function logEpisode() {
+  const user = `load-${((exec.vu.idInTest - 1) % LOAD_USERS) + 1}`;
+  const date = new Date(Date.UTC(2000, 0, 1) + exec.vu.iterationInScenario * 86400000).toISOString().slice(0, 10);
+  const body = {
+    username: user,
+    episodeDate: date,
+    triggerIds: [5, 10],
+    morningSeverity: 3,
+    afternoonSeverity: 2,
+    eveningSeverity: 1,
+    notes: 'load test',
+    medicineLogs: [{ medicineName: 'ibuprofen', dose: '400mg', relief: 3 }],
+  };
+  const res = http.post(`${BASE_URL}/episodes/log`, JSON.stringify(body), {
+    headers: { 'Content-Type': 'application/json' },
+    tags: { name: 'log' },
+  });
+  check(res, { 'log accepted': (r) => r.status === 200 || r.status === 400 });
+}
@@ -0,0 +1,33 @@
+package com.example.backend.Analytics;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Configuration
+public class AnalyticsConfig {
+
+    // Each user's pass holds a database connection for its whole duration, so the all-users view
+    // runs on its own pool kept well under the connection pool size instead of the common pool.
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool analyticsPool(@Value("${analytics.parallelism:4}") int parallelism) {
+        return new ForkJoinPool(parallelism);
+    }
+
+    // A handful of small entries, recomputed at most once per TTL whatever the request rate
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> populationReportCacheCustomizer(
+            @Value("${analytics.population.cache-ttl:5m}") Duration ttl) {
+        return cacheManager -> cacheManager.registerCustomCache(PopulationReportService.CACHE_NAME, Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.backend.Analytics;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    // Smaller than a username page: every user on it is analyzed before the response is written
+    private static final int DEFAULT_USER_PAGE_SIZE = 50;
+
+    private final AnalyticsService analyticsService;
+    private final PopulationReportService populationReportService;
+
+    public AnalyticsController(AnalyticsService analyticsService, PopulationReportService populationReportService) {
+        this.analyticsService = analyticsService;
+        this.populationReportService = populationReportService;
+    }
+
+    @GetMapping("/user/{username}")
+    public UserAnalytics getUserAnalytics(@PathVariable String username) {
+        return analyticsService.getUserAnalytics(username);
+    }
+
+    // Admin view, one page of users at a time; pass the last username back as after= for the next page
+    @GetMapping("/users")
+    public List<UserAnalytics> getAllUserAnalytics(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + DEFAULT_USER_PAGE_SIZE) int size) {
+        return analyticsService.getAllUserAnalytics(after, size);
+    }
+
+    // Population aggregates for admin dashboards, answered by grouped queries instead of per-user analytics
+
+    @GetMapping("/population/severity")
+    public PopulationReport.SeverityDistribution getSeverityDistribution() {
+        return populationReportService.getSeverityDistribution();
+    }
+
+    @GetMapping("/population/triggers")
+    public List<PopulationReport.TriggerUsage> getTopTriggers(
+            @RequestParam(defaultValue = "" + PopulationReportService.DEFAULT_LIMIT) int limit) {
+        return populationReportService.getTopTriggers(limit);
+    }
+
+    @GetMapping("/population/medicines")
+    public List<MedicineUsage> getTopMedicines(
+            @RequestParam(defaultValue = "" + PopulationReportService.DEFAULT_LIMIT) int limit) {
+        return populationReportService.getTopMedicines(limit);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.backend.Analytics;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.Replica.ReadYourWrites;
+import com.example.backend.Users.UserAccount;
+import com.example.backend.Users.UserService;
+
+// Multi-year trigger, medicine and menstrual insights, computed in one streaming pass over a user's
+// episodes and medicine logs and cached per user until their next write.
+@Service
+public class AnalyticsService {
+
+    public static final String CACHE_NAME = "userAnalytics";
+
+    // Write generations, one counter per stripe of usernames so memory stays fixed; two users sharing a stripe
+    // only ever costs a result that isn't cached
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final EpisodeAnalyticsRepository episodeAnalyticsRepository;
+    private final UserService userService;
+    private final ForkJoinPool analyticsPool;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate readOnlyTransaction;
+    // null when the cache is not configured
+    private final Cache cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public AnalyticsService(EpisodeAnalyticsRepository episodeAnalyticsRepository, UserService userService,
+                            @Qualifier("analyticsPool") ForkJoinPool analyticsPool,
+                            PlatformTransactionManager transactionManager, CacheManager cacheManager,
+                            ReadYourWrites readYourWrites) {
+        this.episodeAnalyticsRepository = episodeAnalyticsRepository;
+        this.userService = userService;
+        this.analyticsPool = analyticsPool;
+        this.readYourWrites = readYourWrites;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    public UserAnalytics getUserAnalytics(String username) {
+        if (cache == null) {
+            return analyze(username);
+        }
+        UserAnalytics cached = cache.get(username, UserAnalytics.class);
+        if (cached != null) {
+            return cached;
+        }
+        // A write that commits while the history is being read evicts before this result is stored; the generation
+        // check after storing catches that and drops the stale result. invalidate bumps the generation before it
+        // evicts, so either the check sees the bump or the eviction comes after the put.
+        int stripe = stripe(username);
+        long generation = generations.get(stripe);
+        UserAnalytics computed = analyze(username);
+        cache.put(username, computed);
+        if (generations.get(stripe) != generation) {
+            cache.evict(username);
+        }
+        return computed;
+    }
+
+    // One page of users (see UserService.getUsernames), analyzed in parallel on analyticsPool; cached users cost nothing
+    public List<UserAnalytics> getAllUserAnalytics(String after, int size) {
+        List<String> usernames = userService.getUsernames(after, size);
+        return analyticsPool.submit(() -> usernames.parallelStream()
+                .map(this::getUserAnalytics)
+                .toList())
+                .join();
+    }
+
+    // Called on every write to a user's episodes. Eviction waits for the commit so a concurrent read
+    // can't cache the history as it was before the write.
+    public void invalidate(String username) {
+        if (cache == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(username);
+            }
+        });
+    }
+
+    private void evict(String username) {
+        generations.incrementAndGet(stripe(username));
+        cache.evict(username);
+    }
+
+    private static int stripe(String username) {
+        return Math.floorMod(username.hashCode(), GENERATION_STRIPES);
+    }
+
+    // Reads as the analyzed user, so their recent writes come from the primary on an analyticsPool thread as
+    // well as on the request thread
+    UserAnalytics analyze(String username) {
+        return readYourWrites.readAs(username, () -> readOnlyTransaction.execute(status -> {
+            HistoryAccumulator accumulator = new HistoryAccumulator();
+            Integer userId = userService.getAccount(username).map(UserAccount::userId).orElse(null);
+            if (userId != null) {
+                try (Stream<EpisodeLogRow> rows = episodeAnalyticsRepository.streamLogRows(userId)) {
+                    rows.forEach(accumulator::accept);
+                }
+            }
+            return accumulator.finish(username);
+        }));
+    }
+}
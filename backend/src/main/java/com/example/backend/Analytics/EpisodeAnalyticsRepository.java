@@ -0,0 +1,26 @@
+package com.example.backend.Analytics;
+
+import java.util.stream.Stream;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import com.example.backend.Episode.Episode;
+
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface EpisodeAnalyticsRepository extends Repository<Episode, Integer> {
+
+    // Projection rather than entities, so nothing accumulates in the persistence context however long the
+    // history is. Forward-only; must be consumed inside a transaction and closed. Joining on the partition key
+    // as well lets Postgres pair each yearly episodes partition with its medicine_daily_log partition.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.backend.Analytics.EpisodeLogRow(e.episodeId, e.episodeDate, e.triggerMask, e.menstrualPeriod, "
+            + "e.morningSeverity, e.afternoonSeverity, e.eveningSeverity, m.medicineName, m.relief) "
+            + "FROM Episode e LEFT JOIN e.medicineLogs m ON m.episodeDate = e.episodeDate WHERE e.userId = :userId ORDER BY e.episodeDate, e.episodeId")
+    Stream<EpisodeLogRow> streamLogRows(@Param("userId") int userId);
+}
@@ -0,0 +1,17 @@
+package com.example.backend.Analytics;
+
+import java.time.LocalDate;
+
+// One row of the analytics pass: an episode's scalar columns joined with one of its medicine logs
+// (medicineName and relief are null for an episode without logs). Rows of one episode are adjacent.
+public record EpisodeLogRow(
+        int episodeId,
+        LocalDate episodeDate,
+        long triggerMask,
+        boolean menstrualPeriod,
+        int morningSeverity,
+        int afternoonSeverity,
+        int eveningSeverity,
+        String medicineName,
+        Integer relief) {
+}
@@ -0,0 +1,139 @@
+package com.example.backend.Analytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.backend.Episode.TriggerMask;
+
+// Folds one user's EpisodeLogRows, in date order, into UserAnalytics using only counters.
+// Not thread safe; one accumulator per user pass.
+final class HistoryAccumulator {
+
+    // "3 - Severe" on the diary's 0-3 scale
+    static final int SEVERE = 3;
+
+    private int episodes;
+    private LocalDate firstDate;
+    private LocalDate lastDate;
+    private int severeEvenings;
+
+    // Indexed by trigger id - 1
+    private final int[] triggerDays = new int[TriggerMask.MAX_ID];
+    private final int[] triggerSevereSameDay = new int[TriggerMask.MAX_ID];
+    private final int[] triggerFollowedDays = new int[TriggerMask.MAX_ID];
+    private final int[] triggerSevereNextDay = new int[TriggerMask.MAX_ID];
+
+    private int menstrualDays;
+    private long menstrualSeveritySum;
+    private int menstrualSevereEvenings;
+    private long otherSeveritySum;
+    private int otherSevereEvenings;
+
+    private final Map<String, MedicineCounter> medicines = new HashMap<>();
+
+    private int currentEpisodeId;
+    private long previousTriggerMask;
+
+    private static final class MedicineCounter {
+        int doses;
+        int ratedDoses;
+        long reliefSum;
+    }
+
+    void accept(EpisodeLogRow row) {
+        if (episodes == 0 || row.episodeId() != currentEpisodeId) {
+            episode(row);
+        }
+        if (row.medicineName() != null) {
+            MedicineCounter counter = medicines.computeIfAbsent(row.medicineName(), name -> new MedicineCounter());
+            counter.doses++;
+            if (row.relief() != null) {
+                counter.ratedDoses++;
+                counter.reliefSum += row.relief();
+            }
+        }
+    }
+
+    private void episode(EpisodeLogRow row) {
+        boolean severeEvening = row.eveningSeverity() >= SEVERE;
+        LocalDate date = row.episodeDate();
+
+        // The previous day's triggers precede this evening only if that day was logged
+        if (lastDate != null && lastDate.plusDays(1).equals(date)) {
+            for (long rest = previousTriggerMask; rest != 0; rest &= rest - 1) {
+                int index = Long.numberOfTrailingZeros(rest);
+                triggerFollowedDays[index]++;
+                if (severeEvening) {
+                    triggerSevereNextDay[index]++;
+                }
+            }
+        }
+
+        for (long rest = row.triggerMask(); rest != 0; rest &= rest - 1) {
+            int index = Long.numberOfTrailingZeros(rest);
+            triggerDays[index]++;
+            if (severeEvening) {
+                triggerSevereSameDay[index]++;
+            }
+        }
+
+        int dailySeverity = row.morningSeverity() + row.afternoonSeverity() + row.eveningSeverity();
+        if (row.menstrualPeriod()) {
+            menstrualDays++;
+            menstrualSeveritySum += dailySeverity;
+            if (severeEvening) {
+                menstrualSevereEvenings++;
+            }
+        } else {
+            otherSeveritySum += dailySeverity;
+            if (severeEvening) {
+                otherSevereEvenings++;
+            }
+        }
+
+        if (severeEvening) {
+            severeEvenings++;
+        }
+        if (firstDate == null) {
+            firstDate = date;
+        }
+        lastDate = date;
+        previousTriggerMask = row.triggerMask();
+        currentEpisodeId = row.episodeId();
+        episodes++;
+    }
+
+    UserAnalytics finish(String username) {
+        List<UserAnalytics.TriggerCorrelation> triggers = new ArrayList<>();
+        for (int index = 0; index < triggerDays.length; index++) {
+            if (triggerDays[index] > 0) {
+                triggers.add(new UserAnalytics.TriggerCorrelation(index + 1, triggerDays[index],
+                        rate(triggerSevereSameDay[index], triggerDays[index]),
+                        triggerFollowedDays[index],
+                        rate(triggerSevereNextDay[index], triggerFollowedDays[index])));
+            }
+        }
+
+        List<UserAnalytics.MedicineRelief> medicineReliefs = new ArrayList<>(medicines.size());
+        medicines.forEach((name, counter) -> medicineReliefs.add(new UserAnalytics.MedicineRelief(
+                name, counter.doses, counter.ratedDoses, rate(counter.reliefSum, counter.ratedDoses))));
+        medicineReliefs.sort(Comparator.comparingDouble(UserAnalytics.MedicineRelief::averageRelief).reversed()
+                .thenComparing(UserAnalytics.MedicineRelief::medicineName));
+
+        int otherDays = episodes - menstrualDays;
+        UserAnalytics.MenstrualCorrelation menstrual = new UserAnalytics.MenstrualCorrelation(
+                menstrualDays, rate(menstrualSeveritySum, menstrualDays), rate(menstrualSevereEvenings, menstrualDays),
+                otherDays, rate(otherSeveritySum, otherDays), rate(otherSevereEvenings, otherDays));
+
+        return new UserAnalytics(username, episodes, firstDate, lastDate, rate(severeEvenings, episodes),
+                triggers, medicineReliefs, menstrual);
+    }
+
+    private static double rate(long count, int total) {
+        return total == 0 ? 0 : (double) count / total;
+    }
+}
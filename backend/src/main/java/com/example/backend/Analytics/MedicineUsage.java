@@ -0,0 +1,5 @@
+package com.example.backend.Analytics;
+
+// Doses logged for one medicine across all users; averageRelief is over the rated doses and null when there are none
+public record MedicineUsage(String medicineName, long doses, long ratedDoses, Double averageRelief) {
+}
@@ -0,0 +1,39 @@
+package com.example.backend.Analytics;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+
+import com.example.backend.Episode.Episode;
+
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_QUERY_TIMEOUT;
+
+// Whole-population aggregates, each a single grouped query. Every group key is covered by an index
+// (db/migrations/003_population_report_indexes.sql) so the database can answer from the index alone.
+// A query that overruns QUERY_TIMEOUT_MS is cancelled and surfaces as QueryTimeoutException (503).
+public interface PopulationAnalyticsRepository extends Repository<Episode, Integer> {
+
+    String QUERY_TIMEOUT_MS = "5000";
+
+    // At most one row per severity combination (4^3 on the diary's 0-3 scale)
+    @QueryHints(@QueryHint(name = HINT_SPEC_QUERY_TIMEOUT, value = QUERY_TIMEOUT_MS))
+    @Query("SELECT new com.example.backend.Analytics.SeverityCount(e.morningSeverity, e.afternoonSeverity, e.eveningSeverity, COUNT(e)) "
+            + "FROM Episode e GROUP BY e.morningSeverity, e.afternoonSeverity, e.eveningSeverity")
+    List<SeverityCount> countBySeverities();
+
+    // One row per distinct trigger combination in use; split into single triggers by the caller
+    @QueryHints(@QueryHint(name = HINT_SPEC_QUERY_TIMEOUT, value = QUERY_TIMEOUT_MS))
+    @Query("SELECT new com.example.backend.Analytics.TriggerMaskCount(e.triggerMask, COUNT(e)) "
+            + "FROM Episode e WHERE e.triggerMask <> 0 GROUP BY e.triggerMask")
+    List<TriggerMaskCount> countByTriggerMask();
+
+    @QueryHints(@QueryHint(name = HINT_SPEC_QUERY_TIMEOUT, value = QUERY_TIMEOUT_MS))
+    @Query("SELECT new com.example.backend.Analytics.MedicineUsage(m.medicineName, COUNT(m), COUNT(m.relief), AVG(m.relief)) "
+            + "FROM MedicineDailyLog m WHERE m.medicineName IS NOT NULL GROUP BY m.medicineName ORDER BY COUNT(m) DESC, m.medicineName")
+    List<MedicineUsage> findMedicineUsage(Limit limit);
+}
@@ -0,0 +1,22 @@
+package com.example.backend.Analytics;
+
+import java.util.Map;
+
+// Cross-user aggregates for the admin dashboards
+public final class PopulationReport {
+
+    private PopulationReport() {
+    }
+
+    // Episodes per severity value, for each time of day
+    public record SeverityDistribution(
+            long episodes,
+            Map<Integer, Long> morning,
+            Map<Integer, Long> afternoon,
+            Map<Integer, Long> evening) {
+    }
+
+    // share is the fraction of all episodes tagged with the trigger
+    public record TriggerUsage(int triggerId, long episodes, double share) {
+    }
+}
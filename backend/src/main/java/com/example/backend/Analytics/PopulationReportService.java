@@ -0,0 +1,99 @@
+package com.example.backend.Analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.backend.Episode.TriggerMask;
+
+// Admin aggregates across every user, each from one grouped query rather than a per-user fan-out.
+// Results are cached for analytics.population.cache-ttl, so at most one request per report and
+// interval pays for the query; concurrent misses wait for the same computation.
+@Service
+@Transactional(readOnly = true)
+public class PopulationReportService {
+
+    public static final String CACHE_NAME = "populationReports";
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+
+    private final PopulationAnalyticsRepository populationAnalyticsRepository;
+    // null when the cache is not configured
+    private final Cache cache;
+
+    public PopulationReportService(PopulationAnalyticsRepository populationAnalyticsRepository, CacheManager cacheManager) {
+        this.populationAnalyticsRepository = populationAnalyticsRepository;
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    public PopulationReport.SeverityDistribution getSeverityDistribution() {
+        return cached("severity", this::computeSeverityDistribution);
+    }
+
+    public List<PopulationReport.TriggerUsage> getTopTriggers(int limit) {
+        // Read before entering the cache loader; a loader must not touch other cache entries
+        long episodes = getSeverityDistribution().episodes();
+        List<PopulationReport.TriggerUsage> triggers = cached("triggers", () -> computeTriggerUsage(episodes));
+        return triggers.subList(0, Math.min(clamp(limit), triggers.size()));
+    }
+
+    public List<MedicineUsage> getTopMedicines(int limit) {
+        List<MedicineUsage> medicines = cached("medicines",
+                () -> List.copyOf(populationAnalyticsRepository.findMedicineUsage(Limit.of(MAX_LIMIT))));
+        return medicines.subList(0, Math.min(clamp(limit), medicines.size()));
+    }
+
+    private PopulationReport.SeverityDistribution computeSeverityDistribution() {
+        long episodes = 0;
+        Map<Integer, Long> morning = new TreeMap<>();
+        Map<Integer, Long> afternoon = new TreeMap<>();
+        Map<Integer, Long> evening = new TreeMap<>();
+        for (SeverityCount count : populationAnalyticsRepository.countBySeverities()) {
+            episodes += count.episodes();
+            morning.merge(count.morningSeverity(), count.episodes(), Long::sum);
+            afternoon.merge(count.afternoonSeverity(), count.episodes(), Long::sum);
+            evening.merge(count.eveningSeverity(), count.episodes(), Long::sum);
+        }
+        return new PopulationReport.SeverityDistribution(episodes, morning, afternoon, evening);
+    }
+
+    private List<PopulationReport.TriggerUsage> computeTriggerUsage(long episodes) {
+        long[] episodesPerTrigger = new long[TriggerMask.MAX_ID];
+        for (TriggerMaskCount count : populationAnalyticsRepository.countByTriggerMask()) {
+            for (long rest = count.triggerMask(); rest != 0; rest &= rest - 1) {
+                episodesPerTrigger[Long.numberOfTrailingZeros(rest)] += count.episodes();
+            }
+        }
+        List<PopulationReport.TriggerUsage> triggers = new ArrayList<>();
+        for (int index = 0; index < episodesPerTrigger.length; index++) {
+            if (episodesPerTrigger[index] > 0) {
+                triggers.add(new PopulationReport.TriggerUsage(index + 1, episodesPerTrigger[index],
+                        episodes == 0 ? 0 : (double) episodesPerTrigger[index] / episodes));
+            }
+        }
+        triggers.sort(Comparator.comparingLong(PopulationReport.TriggerUsage::episodes).reversed()
+                .thenComparingInt(PopulationReport.TriggerUsage::triggerId));
+        return List.copyOf(triggers);
+    }
+
+    private <T> T cached(String key, Supplier<T> compute) {
+        if (cache == null) {
+            return compute.get();
+        }
+        return cache.get(key, compute::get);
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
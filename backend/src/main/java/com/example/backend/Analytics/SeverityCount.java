@@ -0,0 +1,5 @@
+package com.example.backend.Analytics;
+
+// Episodes sharing one (morning, afternoon, evening) severity combination, across all users
+public record SeverityCount(int morningSeverity, int afternoonSeverity, int eveningSeverity, long episodes) {
+}
@@ -0,0 +1,5 @@
+package com.example.backend.Analytics;
+
+// Episodes sharing one exact trigger combination (Episode.triggerMask), across all users
+public record TriggerMaskCount(long triggerMask, long episodes) {
+}
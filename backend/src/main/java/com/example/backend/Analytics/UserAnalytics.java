@@ -0,0 +1,44 @@
+package com.example.backend.Analytics;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Whole-history insights for one user. Rates are fractions of the days they are taken over, 0 when there are none.
+public record UserAnalytics(
+        String username,
+        int episodes,
+        LocalDate firstDate,
+        LocalDate lastDate,
+        // share of all days with a severe evening
+        double severeEveningRate,
+        List<TriggerCorrelation> triggers,
+        List<MedicineRelief> medicines,
+        MenstrualCorrelation menstrual) {
+
+    // followedDays counts the trigger days whose next calendar day is also in the diary; the next-day rate is over those
+    public record TriggerCorrelation(
+            int triggerId,
+            int days,
+            double severeEveningSameDayRate,
+            int followedDays,
+            double severeEveningNextDayRate) {
+    }
+
+    // averageRelief is over the doses that had relief rated
+    public record MedicineRelief(
+            String medicineName,
+            int doses,
+            int ratedDoses,
+            double averageRelief) {
+    }
+
+    // Daily severity is morning + afternoon + evening
+    public record MenstrualCorrelation(
+            int menstrualDays,
+            double menstrualAverageDailySeverity,
+            double menstrualSevereEveningRate,
+            int otherDays,
+            double otherAverageDailySeverity,
+            double otherSevereEveningRate) {
+    }
+}
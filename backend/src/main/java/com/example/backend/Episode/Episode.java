@@ -4,27 +4,66 @@ import java.time.LocalDate;
 import jakarta.persistence.*;
 import java.util.*;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import com.example.backend.MedicineDailyLog.MedicineDailyLog;
+import com.example.backend.Users.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 
 @Entity
-@Table(name = "episodes")
+@Table(name = "episodes", uniqueConstraints = {
+    // One episode per user and day; its index backs the per-user date lookups in EpisodeRepository
+    // (db/migrations/004_episode_day_unique.sql, keyed on user_id since 006_user_id_keys.sql)
+    @UniqueConstraint(name = "uk_episodes_user_date", columnNames = {"user_id", "episode_date"})
+}, indexes = {
+    // Group key of the population trigger report (PopulationAnalyticsRepository); the trigger lookup's GIN
+    // expression index over (user_id, episode_trigger_ids(trigger_mask)) is Postgres-only and lives in
+    // db/migration/V4__episode_trigger_ids.sql
+    @Index(name = "idx_episodes_user_trigger_mask", columnList = "user_id, trigger_mask, episode_id"),
+    // Group key of the population severity distribution (PopulationAnalyticsRepository)
+    @Index(name = "idx_episodes_severities", columnList = "morning_severity, afternoon_severity, evening_severity")
+})
 public class Episode {
     
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts (see db/migrations/001_pooled_id_sequences.sql)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "episodes_seq")
+    @SequenceGenerator(name = "episodes_seq", sequenceName = "episodes_seq", allocationSize = 50)
     @Column(name = "episode_id")      
     private int episodeId;
 
-    @Column(name = "username")    
-    private String username;        
+    // Owner as an integer key (db/migrations/006_user_id_keys.sql); clients see the username instead
+    @Column(name = "user_id", nullable = false)
+    @JsonIgnore
+    private int userId;
+
+    // Only there to declare the foreign key; never loaded
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "fk_episodes_user"))
+    @JsonIgnore
+    private User user;
 
-    @Column(name = "episode_date")
+    // Not stored: EpisodeService resolves usernames to user_id once per request and fills this in on the way out
+    @Transient
+    private String username;
+
+    // Partition key: on Postgres the table is split into one partition per year (db/migration/V2__yearly_partitions.sql)
+    @Column(name = "episode_date", nullable = false)
     private LocalDate episodeDate;
 
-    @Column(name = "trigger_ids")
-    private Integer[] triggerIds;
+    // See TriggerMask; exposed to clients as the triggerIds array (db/migrations/002_trigger_mask.sql)
+    @Column(name = "trigger_mask", nullable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long triggerMask;
+
+    // Posted trigger ids outside 1..TriggerMask.MAX_ID, which the mask can't hold. setTriggerIds sets them aside
+    // rather than throwing, so the controller can answer 400 instead of JSON binding failing with a 500.
+    @Transient
+    @JsonIgnore
+    private int[] invalidTriggerIds = new int[0];
 
     @Column(name = "menstrual_period")
     private boolean menstrualPeriod;
@@ -51,12 +90,12 @@ public class Episode {
     }
 
     // All-argument constructor, now using the correct field name
-    public Episode(int episodeId, String username, LocalDate episodeDate, Integer[] triggerIds, boolean menstrualPeriod,
+    public Episode(int episodeId, String username, LocalDate episodeDate, int[] triggerIds, boolean menstrualPeriod,
                      int morningSeverity, int afternoonSeverity, int eveningSeverity, String notes, List<MedicineDailyLog> medicineLogs) {
         this.episodeId = episodeId;
         this.username = username;
         this.episodeDate = episodeDate;
-        this.triggerIds = triggerIds;
+        setTriggerMask(TriggerMask.of(triggerIds));
         this.menstrualPeriod = menstrualPeriod;
         this.morningSeverity = morningSeverity;
         this.afternoonSeverity = afternoonSeverity;
@@ -74,6 +113,14 @@ public class Episode {
         this.episodeId = episodeId;
     }
 
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
     public String getUsername() {
         return username;
     }
@@ -90,12 +137,27 @@ public class Episode {
         this.episodeDate = episodeDate;
     }
 
-    public Integer[] getTriggerIds() {
-        return triggerIds;
+    public int[] getTriggerIds() {
+        return TriggerMask.ids(triggerMask);
+    }
+
+    public void setTriggerIds(int[] triggerIds) {
+        int[] ids = triggerIds != null ? triggerIds : new int[0];
+        invalidTriggerIds = Arrays.stream(ids).filter(id -> !TriggerMask.isValid(id)).toArray();
+        setTriggerMask(TriggerMask.of(Arrays.stream(ids).filter(TriggerMask::isValid).toArray()));
+    }
+
+    @JsonIgnore
+    public int[] getInvalidTriggerIds() {
+        return invalidTriggerIds;
+    }
+
+    public long getTriggerMask() {
+        return triggerMask;
     }
 
-    public void setTriggerIds(Integer[] triggerIds) {
-        this.triggerIds = triggerIds;
+    public void setTriggerMask(long triggerMask) {
+        this.triggerMask = triggerMask;
     }
 
     public boolean isMenstrualPeriod() {
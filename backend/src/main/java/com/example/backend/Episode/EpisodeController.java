@@ -2,13 +2,30 @@ package com.example.backend.Episode;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-// import org.springframework.http.HttpStatus;
-// import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.backend.MonthlySummary.MonthlySummary;
+import com.example.backend.MonthlySummary.MonthlySummaryService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.*; 
+import java.util.zip.GZIPOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,25 +43,193 @@ public class EpisodeController {
     @Autowired
     private EpisodeService episodeService;
 
+    @Autowired
+    private MonthlySummaryService monthlySummaryService;
+
+    @Autowired
+    private EpisodeImportService episodeImportService;
+
+    @Autowired
+    private MonthReportService monthReportService;
+
+    @Autowired
+    private EpisodeExportService episodeExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Present only with episode-queue.enabled=true
+    @Autowired(required = false)
+    private EpisodeWriteQueue episodeWriteQueue;
+
     @GetMapping("/user/{username}")
-    public List<Episode> getAllEpisodes(@PathVariable String username) {
-        return episodeService.getEpisodesPerUser(username);
+    public List<EpisodeView> getAllEpisodes(@PathVariable String username) {
+        return episodeService.getEpisodeViewsPerUser(username);
+    }
+
+    @GetMapping("/user/{username}/page")
+    public ResponseEntity<EpisodePage> getEpisodePage(
+            @PathVariable String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + EpisodeService.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(episodeService.getEpisodePage(username, cursor, size));
+    }
+
+    // Full history as newline-delimited JSON, written episode by episode straight off the database cursor
+    @GetMapping(value = "/user/{username}/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamEpisodes(@PathVariable String username) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                episodeService.streamEpisodes(username, episode -> {
+                    try {
+                        writer.writeValue(generator, episode);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
+    // Creates the day's episode, or updates it if the day is already logged. In write-behind mode the
+    // episode is only queued (202), and a full queue answers 429.
     @PostMapping("/log")
-    public void postEpisode(@RequestBody Episode episode) {
-        logger.info("Received POST request at /episodes/log");
-        logger.info("Episode received: {}", episode.toString()); 
-        episodeService.saveEpisode(episode);
+    public ResponseEntity<Episode> postEpisode(@RequestBody Episode episode) {
+        logger.debug("Received episode for {} on {}", episode.getUsername(), episode.getEpisodeDate());
+        rejectInvalidTriggers(episode);
+        if (episodeWriteQueue != null) {
+            return ResponseEntity.accepted().body(episodeWriteQueue.enqueue(episode));
+        }
+        return ResponseEntity.ok(episodeService.saveEpisode(episode));
     }
 
-    @GetMapping("/user/{username}/month/{year}/{month}")
-    public ResponseEntity<List<Episode>> getEpisodesByMonth(
+    // Whole diary as CSV in the import layout, gzipped when the client accepts it
+    @GetMapping(value = "/user/{username}/export", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportEpisodesCsv(
+            @PathVariable String username,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024)) {
+                    episodeExportService.exportCsv(username, compressed);
+                }
+            } else {
+                episodeExportService.exportCsv(username, out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(username + "-migraine-diary.csv", StandardCharsets.UTF_8).build().toString())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // Whether an Accept-Encoding header allows gzip: listed by name, or through * when gzip isn't listed,
+    // with a q-value above 0 (RFC 9110 12.5.3); "gzip;q=0" refuses it
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = q;
+            } else if (name.equals("*")) {
+                any = q;
+            }
+        }
+        Double q = gzip != null ? gzip : any;
+        return q != null && q > 0;
+    }
+
+    // Bulk import of a user's history as a JSON array of episodes
+    @PostMapping(value = "/user/{username}/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EpisodeImportResult> importEpisodesJson(@PathVariable String username, InputStream body) throws IOException {
+        return ResponseEntity.ok(episodeImportService.importJson(username, body));
+    }
+
+    // Bulk import as CSV, see EpisodeCsvReader for the columns
+    @PostMapping(value = "/user/{username}/import", consumes = "text/csv")
+    public ResponseEntity<EpisodeImportResult> importEpisodesCsv(@PathVariable String username, InputStream body) throws IOException {
+        return ResponseEntity.ok(episodeImportService.importCsv(username, new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+
+    // Conditional GET: the ETag is the month's revision, so an unchanged month answers 304 without loading episodes.
+    // Accept: application/cbor gets the compact MonthColumns layout instead of the episode list.
+    @GetMapping(value = "/user/{username}/month/{year}/{month}", produces = { MediaType.APPLICATION_JSON_VALUE, "application/cbor" })
+    public ResponseEntity<byte[]> getEpisodesByMonth(
+            @PathVariable String username,
+            @PathVariable int year,
+            @PathVariable int month,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest request) {
+        MonthReportFormat format = MonthReportFormat.negotiate(
+                accept == null ? List.of() : MediaType.parseMediaTypes(accept));
+        String eTag = monthReportService.getETag(username, year, month, format);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(format.getMediaType())
+                .body(monthReportService.getMonth(username, year, month, format, eTag));
+    }
+
+    // Whole year in one call for the year-at-a-glance view; see YearHeatmap for the per-day byte
+    @GetMapping("/user/{username}/year/{year}/heatmap")
+    public ResponseEntity<YearHeatmap> getYearHeatmap(@PathVariable String username, @PathVariable int year) {
+        if (year < YearHeatmap.MIN_YEAR || year > YearHeatmap.MAX_YEAR) {
+            throw new IllegalArgumentException("Year must be between " + YearHeatmap.MIN_YEAR + " and " + YearHeatmap.MAX_YEAR);
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(episodeService.getYearHeatmap(username, year));
+    }
+
+    @GetMapping("/user/{username}/summary/{year}/{month}")
+    public ResponseEntity<MonthlySummary> getMonthlySummary(
             @PathVariable String username,
             @PathVariable int year,
             @PathVariable int month) {
-        List<Episode> episodes = episodeService.getUserEpisodesByMonth(username, year, month);
-        return ResponseEntity.ok(episodes);
+        return ResponseEntity.ok(monthlySummaryService.getSummary(username, year, month));
+    }
+
+    // Backfills every monthly summary from the episodes table
+    @PostMapping("/summary/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildMonthlySummaries() {
+        int months = monthlySummaryService.rebuildAll();
+        return ResponseEntity.ok(Map.of("months", months));
+    }
+
+    @GetMapping("/user/{username}/trigger/{triggerId}")
+    public List<Episode> getEpisodesWithTrigger(@PathVariable String username, @PathVariable int triggerId) {
+        return episodeService.getEpisodesWithTrigger(username, triggerId);
     }
 
     @GetMapping("/user/{username}/date/{date}")
@@ -56,21 +241,27 @@ public class EpisodeController {
                      .orElse(ResponseEntity.notFound().build());
     }
 
-    // @DeleteMapping("/{id}")
-    // public ResponseEntity<Void> deleteEpisode(@PathVariable Integer id) {
-    //     episodeService.deleteEpisode(id);
-    //     return ResponseEntity.ok().build();
-    // }
-
-    // @PutMapping("/{id}")
-    // public ResponseEntity<Episode> updateEpisode(@PathVariable Integer id, @RequestBody Episode episode) {
-    //     episode.setEpisodeId(id);
-    //     try {
-    //         Episode updatedEpisode = episodeService.saveOrUpdateEpisode(episode);
-    //         return ResponseEntity.ok(updatedEpisode);
-    //     } catch (RuntimeException e) {
-    //         return ResponseEntity.badRequest().body(null);
-    //     }
-    // }
+    // Edits and deletes name the owner in the path like the reads, so no lookup from user_id back to the
+    // username is needed; another user's episode id is a 404
+    @DeleteMapping("/user/{username}/{id}")
+    public ResponseEntity<Void> deleteEpisode(@PathVariable String username, @PathVariable Integer id) {
+        return episodeService.deleteEpisode(username, id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @PutMapping("/user/{username}/{id}")
+    public ResponseEntity<Episode> updateEpisode(@PathVariable String username, @PathVariable Integer id, @RequestBody Episode episode) {
+        rejectInvalidTriggers(episode);
+        return episodeService.updateEpisode(username, id, episode)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static void rejectInvalidTriggers(Episode episode) {
+        if (episode.getInvalidTriggerIds().length > 0) {
+            throw new IllegalArgumentException(TriggerMask.invalidIdsMessage(episode.getInvalidTriggerIds()));
+        }
+    }
 
 }
@@ -0,0 +1,197 @@
+package com.example.backend.Episode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.example.backend.MedicineDailyLog.MedicineDailyLog;
+
+// Reads episodes from CSV with a header row. Recognised columns (any order, case-insensitive):
+// episodeDate, morningSeverity, afternoonSeverity, eveningSeverity, menstrualPeriod,
+// triggerIds (separated by ';'), notes, and per medicine: medicineName, dose, relief, timeTaken, medicineNotes.
+// Consecutive rows with the same episodeDate are one episode with several medicine logs.
+final class EpisodeCsvReader {
+
+    // error is non-null when the row could not be parsed; episode is then whatever was read, possibly null
+    record Row(int row, Episode episode, String error) {
+    }
+
+    private final Reader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final StringBuilder field = new StringBuilder();
+    private List<String> lookahead;
+    private int lookaheadRow;
+    private int recordNumber;
+    private boolean eof;
+
+    EpisodeCsvReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV import requires a header row");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("episodedate")) {
+            throw new IllegalArgumentException("CSV import requires an episodeDate column");
+        }
+        advance();
+    }
+
+    // Next episode (with all of its medicine rows), a row that failed to parse, or null at the end
+    Row next() throws IOException {
+        if (lookahead == null) {
+            return null;
+        }
+        int row = lookaheadRow;
+        List<String> first = lookahead;
+        advance();
+
+        Episode episode;
+        try {
+            episode = parseEpisode(first);
+            addMedicine(episode, first);
+        } catch (RuntimeException e) {
+            return new Row(row, null, "Malformed row: " + e.getMessage());
+        }
+
+        String error = null;
+        while (lookahead != null && episode.getEpisodeDate().toString().equals(value(lookahead, "episodedate"))) {
+            try {
+                addMedicine(episode, lookahead);
+            } catch (RuntimeException e) {
+                if (error == null) {
+                    error = "Malformed medicine row " + lookaheadRow + ": " + e.getMessage();
+                }
+            }
+            advance();
+        }
+        return new Row(row, episode, error);
+    }
+
+    private void advance() throws IOException {
+        do {
+            lookahead = readRecord();
+            lookaheadRow = recordNumber;
+        } while (lookahead != null && lookahead.size() == 1 && lookahead.get(0).isBlank());
+    }
+
+    private Episode parseEpisode(List<String> record) {
+        Episode episode = new Episode();
+        String date = value(record, "episodedate");
+        if (date == null) {
+            throw new IllegalArgumentException("episodeDate is required");
+        }
+        try {
+            episode.setEpisodeDate(LocalDate.parse(date));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid episodeDate '" + date + "'");
+        }
+        episode.setMorningSeverity(intValue(record, "morningseverity"));
+        episode.setAfternoonSeverity(intValue(record, "afternoonseverity"));
+        episode.setEveningSeverity(intValue(record, "eveningseverity"));
+        episode.setMenstrualPeriod(Boolean.parseBoolean(value(record, "menstrualperiod")));
+        episode.setNotes(text(record, "notes"));
+
+        String triggers = value(record, "triggerids");
+        if (triggers != null) {
+            long triggerMask = 0;
+            for (String part : triggers.split(";")) {
+                if (!part.isBlank()) {
+                    triggerMask |= TriggerMask.bit(Integer.parseInt(part.trim()));
+                }
+            }
+            episode.setTriggerMask(triggerMask);
+        }
+        return episode;
+    }
+
+    private void addMedicine(Episode episode, List<String> record) {
+        String name = text(record, "medicinename");
+        if (name == null) {
+            return;
+        }
+        MedicineDailyLog medicine = new MedicineDailyLog();
+        medicine.setMedicineName(name);
+        medicine.setDose(text(record, "dose"));
+        String relief = value(record, "relief");
+        medicine.setRelief(relief != null ? Integer.valueOf(relief) : null);
+        medicine.setTimeTaken(text(record, "timetaken"));
+        medicine.setNotes(text(record, "medicinenotes"));
+        episode.getMedicineLogs().add(medicine);
+    }
+
+    private String value(List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // A text column, without the ' EpisodeCsvWriter puts before anything a spreadsheet would run as a formula
+    private String text(List<String> record, String column) {
+        String value = value(record, column);
+        return value != null && value.startsWith("'") && EpisodeCsvWriter.startsLikeFormula(value) ? value.substring(1) : value;
+    }
+
+    private int intValue(List<String> record, String column) {
+        String value = value(record, column);
+        return value != null ? Integer.parseInt(value) : 0;
+    }
+
+    // RFC 4180 record: comma separated, double-quoted fields may contain commas, newlines and "" escapes
+    private List<String> readRecord() throws IOException {
+        if (eof) {
+            return null;
+        }
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (c == -1) {
+            eof = true;
+            if (!any) {
+                return null;
+            }
+        }
+        record.add(field.toString());
+        recordNumber++;
+        return record;
+    }
+}
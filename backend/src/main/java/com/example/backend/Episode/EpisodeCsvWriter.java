@@ -0,0 +1,80 @@
+package com.example.backend.Episode;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Writes RFC 4180 CSV in the layout EpisodeCsvReader imports: one row per medicine log, with the
+// episode's columns repeated on each, or a single row with empty medicine columns.
+final class EpisodeCsvWriter {
+
+    static final String HEADER = "episodeDate,morningSeverity,afternoonSeverity,eveningSeverity,menstrualPeriod,"
+            + "triggerIds,notes,medicineName,dose,relief,timeTaken,medicineNotes";
+
+    private final Writer writer;
+
+    EpisodeCsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    void writeHeader() throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+    }
+
+    // Values are written as given, except that text a spreadsheet would run as a formula gets a leading '
+    // (EpisodeCsvReader drops it again); null is an empty field
+    void writeField(Object value) throws IOException {
+        if (value != null) {
+            String text = value instanceof String && startsLikeFormula((String) value) ? "'" + value : value.toString();
+            if (needsQuotes(text)) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+    }
+
+    void separator() throws IOException {
+        writer.write(',');
+    }
+
+    void endRow() throws IOException {
+        writer.write('\n');
+    }
+
+    void writeTriggerIds(long triggerMask) throws IOException {
+        int[] ids = TriggerMask.ids(triggerMask);
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                writer.write(';');
+            }
+            writer.write(Integer.toString(ids[i]));
+        }
+    }
+
+    // True for text starting with =, +, -, @, tab or carriage return after any leading 's. Counting the 's keeps
+    // text that already starts with one intact through a round trip.
+    static boolean startsLikeFormula(String text) {
+        int i = 0;
+        while (i < text.length() && text.charAt(i) == '\'') {
+            i++;
+        }
+        if (i == text.length()) {
+            return false;
+        }
+        char c = text.charAt(i);
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+
+    private static boolean needsQuotes(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.backend.Episode;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.Users.UserAccount;
+import com.example.backend.Users.UserRepository;
+
+// Full-history CSV export (see EpisodeCsvWriter for the layout) read through a forward-only JDBC cursor:
+// rows are written as they arrive, FETCH_SIZE at a time, so memory use doesn't grow with the diary.
+@Service
+public class EpisodeExportService {
+
+    static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String EXPORT_SQL = """
+            SELECT e.episode_date, e.morning_severity, e.afternoon_severity, e.evening_severity, e.menstrual_period,
+                   e.trigger_mask, e.notes, m.medicine_name, m.dose, m.relief, m.time_taken, m.notes AS medicine_notes
+            FROM episodes e
+            LEFT JOIN medicine_daily_log m ON m.episode_id = e.episode_id AND m.episode_date = e.episode_date
+            WHERE e.user_id = ?
+            ORDER BY e.episode_date, m.medicince_log_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public EpisodeExportService(DataSource dataSource, UserRepository userRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        // Postgres only streams with a cursor inside a transaction; without one the driver reads every row first
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Writes the export to out in BUFFER_SIZE chunks; the caller owns (and closes) out
+    public void exportCsv(String username, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        EpisodeCsvWriter csv = new EpisodeCsvWriter(writer);
+        csv.writeHeader();
+        UserAccount user = userRepository.findAccountByUsername(username);
+        if (user == null) {
+            writer.flush();
+            return;
+        }
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(EXPORT_SQL, (ResultSet row) -> {
+                try {
+                    writeRow(csv, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, user.userId()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static void writeRow(EpisodeCsvWriter csv, ResultSet row) throws SQLException, IOException {
+        Date date = row.getDate("episode_date");
+        csv.writeField(date != null ? date.toLocalDate() : null);
+        csv.separator();
+        csv.writeField(row.getInt("morning_severity"));
+        csv.separator();
+        csv.writeField(row.getInt("afternoon_severity"));
+        csv.separator();
+        csv.writeField(row.getInt("evening_severity"));
+        csv.separator();
+        csv.writeField(row.getBoolean("menstrual_period"));
+        csv.separator();
+        csv.writeTriggerIds(row.getLong("trigger_mask"));
+        csv.separator();
+        csv.writeField(row.getString("notes"));
+        csv.separator();
+        csv.writeField(row.getString("medicine_name"));
+        csv.separator();
+        csv.writeField(row.getString("dose"));
+        csv.separator();
+        int relief = row.getInt("relief");
+        csv.writeField(row.wasNull() ? null : relief);
+        csv.separator();
+        csv.writeField(row.getString("time_taken"));
+        csv.separator();
+        csv.writeField(row.getString("medicine_notes"));
+        csv.endRow();
+    }
+}
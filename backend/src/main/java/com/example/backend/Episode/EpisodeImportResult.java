@@ -0,0 +1,11 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Outcome of a bulk import: rows that were stored plus every row that was rejected and why
+public record EpisodeImportResult(int imported, List<Failure> failures) {
+
+    public record Failure(int row, LocalDate episodeDate, String error) {
+    }
+}
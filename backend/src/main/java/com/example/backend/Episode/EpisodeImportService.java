@@ -0,0 +1,246 @@
+package com.example.backend.Episode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.Analytics.AnalyticsService;
+import com.example.backend.MonthlySummary.MonthlySummaryService;
+import com.example.backend.Partitions.YearPartitions;
+import com.example.backend.Replica.ReadYourWrites;
+import com.example.backend.Users.UserAccount;
+import com.example.backend.Users.UserRepository;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Bulk import of a user's diary history. Input is consumed as a stream and persisted in batches of
+// BATCH_SIZE episodes, each batch in its own transaction with JDBC-batched inserts. Rows that can't be
+// stored (malformed, duplicate date) are reported back instead of aborting the import.
+@Service
+public class EpisodeImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EpisodeImportService.class);
+
+    static final int BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final EpisodeRepository episodeRepository;
+    private final MonthlySummaryService monthlySummaryService;
+    private final ObjectMapper objectMapper;
+    private final EpisodeMetrics episodeMetrics;
+    private final AnalyticsService analyticsService;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Absent unless partitions.enabled; imports are the usual source of years older than any partition
+    @Autowired(required = false)
+    private YearPartitions yearPartitions;
+
+    public EpisodeImportService(UserRepository userRepository, EpisodeRepository episodeRepository,
+                                MonthlySummaryService monthlySummaryService, ObjectMapper objectMapper,
+                                EpisodeMetrics episodeMetrics, AnalyticsService analyticsService,
+                                ReadYourWrites readYourWrites, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.episodeRepository = episodeRepository;
+        this.monthlySummaryService = monthlySummaryService;
+        this.objectMapper = objectMapper;
+        this.episodeMetrics = episodeMetrics;
+        this.analyticsService = analyticsService;
+        this.readYourWrites = readYourWrites;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Body is a JSON array of episodes in the same shape POST /episodes/log accepts
+    public EpisodeImportResult importJson(String username, InputStream body) throws IOException {
+        Batch batch = new Batch(requireUser(username));
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of episodes");
+            }
+            int row = 0;
+            JsonToken token;
+            try {
+                while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                    row++;
+                    JsonNode node = parser.readValueAsTree();
+                    try {
+                        batch.add(row, objectMapper.treeToValue(node, Episode.class));
+                    } catch (JsonProcessingException e) {
+                        batch.fail(row, null, "Malformed episode: " + e.getOriginalMessage());
+                    }
+                }
+                if (token != JsonToken.END_ARRAY) {
+                    batch.fail(row + 1, null, "Expected an episode object, import stopped");
+                }
+            } catch (JsonParseException e) {
+                batch.fail(row + 1, null, "Malformed JSON, import stopped: " + e.getOriginalMessage());
+            }
+        }
+        return batch.finish();
+    }
+
+    public EpisodeImportResult importCsv(String username, Reader body) throws IOException {
+        Batch batch = new Batch(requireUser(username));
+        EpisodeCsvReader reader = new EpisodeCsvReader(body);
+        EpisodeCsvReader.Row row;
+        while ((row = reader.next()) != null) {
+            if (row.error() != null) {
+                batch.fail(row.row(), row.episode() != null ? row.episode().getEpisodeDate() : null, row.error());
+            } else {
+                batch.add(row.row(), row.episode());
+            }
+        }
+        return batch.finish();
+    }
+
+    private UserAccount requireUser(String username) {
+        UserAccount user = userRepository.findAccountByUsername(username);
+        if (user == null) {
+            throw new IllegalArgumentException("User not found with username: " + username);
+        }
+        return user;
+    }
+
+    private record Pending(int row, Episode episode) {
+    }
+
+    private final class Batch {
+
+        private final UserAccount user;
+        private final String username;
+        private final LocalDateTime importedAt = LocalDateTime.now();
+        private final List<EpisodeImportResult.Failure> failures = new ArrayList<>();
+        private List<Pending> pending = new ArrayList<>(BATCH_SIZE);
+        private int imported;
+
+        Batch(UserAccount user) {
+            this.user = user;
+            this.username = user.username();
+        }
+
+        void add(int row, Episode episode) {
+            if (episode.getEpisodeDate() == null) {
+                fail(row, null, "episodeDate is required");
+                return;
+            }
+            if (episode.getInvalidTriggerIds().length > 0) {
+                fail(row, episode.getEpisodeDate(), TriggerMask.invalidIdsMessage(episode.getInvalidTriggerIds()));
+                return;
+            }
+            pending.add(new Pending(row, episode));
+            if (pending.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void fail(int row, LocalDate episodeDate, String error) {
+            failures.add(new EpisodeImportResult.Failure(row, episodeDate, error));
+        }
+
+        EpisodeImportResult finish() {
+            flush();
+            logger.info("Imported {} episodes for {} ({} rejected)", imported, username, failures.size());
+            return new EpisodeImportResult(imported, failures);
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Pending> rows = pending;
+            pending = new ArrayList<>(BATCH_SIZE);
+            try {
+                ensureYears(rows);
+                List<EpisodeImportResult.Failure> rejected = transactionTemplate.execute(status -> store(rows));
+                failures.addAll(rejected);
+                imported += rows.size() - rejected.size();
+            } catch (RuntimeException e) {
+                // Something in the batch failed at the database; isolate it by retrying row by row
+                for (Pending row : rows) {
+                    EpisodeService.resetIds(row.episode());
+                    try {
+                        ensureYears(List.of(row));
+                        List<EpisodeImportResult.Failure> rejected = transactionTemplate.execute(status -> store(List.of(row)));
+                        failures.addAll(rejected);
+                        imported += 1 - rejected.size();
+                    } catch (RuntimeException rowError) {
+                        fail(row.row(), row.episode().getEpisodeDate(), "Could not be stored: " + rootMessage(rowError));
+                    }
+                }
+            }
+        }
+
+        // Before the batch's transaction starts, see YearPartitions.ensureYear
+        private void ensureYears(List<Pending> rows) {
+            if (yearPartitions == null) {
+                return;
+            }
+            for (Pending row : rows) {
+                yearPartitions.ensureYear(row.episode().getEpisodeDate().getYear());
+            }
+        }
+
+        // Persists the rows whose date is free and returns the ones rejected as duplicates
+        private List<EpisodeImportResult.Failure> store(List<Pending> rows) {
+            List<LocalDate> dates = new ArrayList<>(rows.size());
+            for (Pending row : rows) {
+                dates.add(row.episode().getEpisodeDate());
+            }
+            Set<LocalDate> taken = new HashSet<>(episodeRepository.findExistingDates(user.userId(), dates));
+
+            List<EpisodeImportResult.Failure> rejected = new ArrayList<>();
+            List<Episode> stored = new ArrayList<>(rows.size());
+            for (Pending row : rows) {
+                Episode episode = row.episode();
+                if (!taken.add(episode.getEpisodeDate())) {
+                    rejected.add(new EpisodeImportResult.Failure(row.row(), episode.getEpisodeDate(),
+                            "An episode is already logged for this date"));
+                    continue;
+                }
+                EpisodeService.prepareForSave(episode, user, importedAt);
+                entityManager.persist(episode);
+                stored.add(episode);
+            }
+            monthlySummaryService.recordEpisodes(stored);
+            if (!stored.isEmpty()) {
+                analyticsService.invalidate(username);
+                readYourWrites.recordWrite(username);
+            }
+            episodeMetrics.episodesImported(stored);
+            entityManager.flush();
+            entityManager.clear();
+            return rejected;
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.backend.Episode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Append-only file of queued episodes, one JSON object per line, plus a checkpoint file holding the
+// offset up to which entries are stored in the database. Everything past the checkpoint is replayed
+// on open; a torn last line from a crash mid-append is cut off. Not thread safe, EpisodeWriteQueue
+// serializes access.
+final class EpisodeJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EpisodeJournal.class);
+
+    static final String JOURNAL_FILE = "episodes.journal";
+    static final String CHECKPOINT_FILE = "episodes.checkpoint";
+
+    record Entry(long enqueuedAt, Episode episode) {
+    }
+
+    // An entry read back from the journal, with the offset just past its line
+    record Replayed(Entry entry, long endOffset) {
+    }
+
+    private final Path checkpointFile;
+    private final FileChannel channel;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+
+    private EpisodeJournal(Path directory, FileChannel channel, ObjectMapper objectMapper, boolean fsync) {
+        this.checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        this.channel = channel;
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+    }
+
+    static EpisodeJournal open(Path directory, ObjectMapper objectMapper, boolean fsync) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(directory.resolve(JOURNAL_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new EpisodeJournal(directory, channel, objectMapper, fsync);
+    }
+
+    // Entries after the checkpoint, in append order. Leaves the file positioned for the next append.
+    List<Replayed> replay() throws IOException {
+        long offset = readCheckpoint();
+        if (offset > channel.size()) {
+            // Crashed between compacting the journal and resetting the checkpoint
+            offset = 0;
+            writeCheckpoint(0);
+        }
+        List<Replayed> entries = new ArrayList<>();
+        channel.position(offset);
+        BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+        long validEnd = offset;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            long lineEnd = validEnd + line.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (lineEnd > channel.size()) {
+                break;
+            }
+            try {
+                entries.add(new Replayed(objectMapper.readValue(line, Entry.class), lineEnd));
+            } catch (JsonProcessingException e) {
+                break;
+            }
+            validEnd = lineEnd;
+        }
+        if (validEnd < channel.size()) {
+            logger.warn("Discarding {} bytes of incomplete episode journal entry", channel.size() - validEnd);
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+        channel.position(validEnd);
+        return entries;
+    }
+
+    // Writes the entry and returns the offset just past it. Durable only after force().
+    long append(Entry entry) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(entry);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return channel.position();
+    }
+
+    // Safe to call concurrently with append; forces every write made so far
+    void force() throws IOException {
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    // Everything before offset is in the database. Once that is the whole journal it is emptied.
+    void checkpoint(long offset) throws IOException {
+        if (offset == channel.size()) {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+            offset = 0;
+        }
+        writeCheckpoint(offset);
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        String value = Files.readString(checkpointFile).trim();
+        return value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+
+    private void writeCheckpoint(long offset) throws IOException {
+        Path temp = checkpointFile.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.wrap(Long.toString(offset).getBytes(StandardCharsets.US_ASCII)));
+            if (fsync) {
+                out.force(true);
+            }
+        }
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
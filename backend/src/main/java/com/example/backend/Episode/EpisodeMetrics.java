@@ -0,0 +1,75 @@
+package com.example.backend.Episode;
+
+import java.util.Collection;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Write-path metrics: episodes saved (by source) and medicine logs per episode.
+// Request latency per endpoint and per repository method come from Spring Boot's
+// http.server.requests and spring.data.repository.invocations timers.
+@Component
+public class EpisodeMetrics {
+
+    private final Counter loggedEpisodes;
+    private final Counter importedEpisodes;
+    private final DistributionSummary medicineLogsPerEpisode;
+
+    public EpisodeMetrics(MeterRegistry meterRegistry) {
+        this.loggedEpisodes = Counter.builder("episodes.saved")
+                .description("Episodes stored")
+                .tag("source", "log")
+                .register(meterRegistry);
+        this.importedEpisodes = Counter.builder("episodes.saved")
+                .description("Episodes stored")
+                .tag("source", "import")
+                .register(meterRegistry);
+        this.medicineLogsPerEpisode = DistributionSummary.builder("episodes.medicine.logs")
+                .description("Medicine logs per stored episode")
+                .baseUnit("logs")
+                .register(meterRegistry);
+    }
+
+    // Both are counted only once the surrounding transaction commits, so rolled-back writes don't show up
+
+    public void episodeLogged(Episode episode) {
+        int medicineLogs = medicineLogCount(episode);
+        afterCommit(() -> record(loggedEpisodes, medicineLogs));
+    }
+
+    public void episodesImported(Collection<Episode> episodes) {
+        int[] medicineLogs = episodes.stream().mapToInt(EpisodeMetrics::medicineLogCount).toArray();
+        afterCommit(() -> {
+            for (int count : medicineLogs) {
+                record(importedEpisodes, count);
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static int medicineLogCount(Episode episode) {
+        return episode.getMedicineLogs() != null ? episode.getMedicineLogs().size() : 0;
+    }
+
+    private void record(Counter counter, int medicineLogs) {
+        counter.increment();
+        medicineLogsPerEpisode.record(medicineLogs);
+    }
+}
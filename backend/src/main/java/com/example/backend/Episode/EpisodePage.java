@@ -0,0 +1,30 @@
+package com.example.backend.Episode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+// One page of a user's episode history plus the opaque cursor for the next page (null on the last page)
+public record EpisodePage(List<Episode> episodes, String nextCursor) {
+
+    // Cursor is the (episode_date, episode_id) key of the last episode on the page
+    static String encodeCursor(Episode last) {
+        String key = last.getEpisodeDate() + ":" + last.getEpisodeId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decodeCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = key.indexOf(':');
+            return new Cursor(LocalDate.parse(key.substring(0, separator)), Integer.parseInt(key.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    record Cursor(LocalDate episodeDate, int episodeId) {
+    }
+}
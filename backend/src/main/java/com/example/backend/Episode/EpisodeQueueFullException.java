@@ -0,0 +1,9 @@
+package com.example.backend.Episode;
+
+// The write-behind queue is at episode-queue.capacity; answered with 429 so clients back off and retry
+public class EpisodeQueueFullException extends RuntimeException {
+
+    public EpisodeQueueFullException(int capacity) {
+        super("Episode queue is full (" + capacity + " pending)");
+    }
+}
@@ -1,29 +1,110 @@
 package com.example.backend.Episode;
 
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface EpisodeRepository extends JpaRepository<Episode, Integer> {
     
-    List<Episode> findByUsername(String username);
+    // Read methods fetch medicineLogs in the same query so serializing the result never lazy-loads per episode
 
-    Optional<Episode> findByUsernameAndEpisodeDate(String username, LocalDate episodeDate);
-    
-    @Query("SELECT e FROM Episode e WHERE e.username = :username AND YEAR(e.episodeDate) = :year AND MONTH(e.episodeDate) = :month ORDER BY e.episodeDate")
-    List<Episode> findByUsernameAndMonth(@Param("username") String username, 
-                                        @Param("year") int year, 
-                                        @Param("month") int month);
+    // Per-user methods take the integer user_id; EpisodeService resolves the username once per request
+
+    @EntityGraph(attributePaths = "medicineLogs")
+    List<Episode> findByUserId(int userId);
+
+    @EntityGraph(attributePaths = "medicineLogs")
+    Optional<Episode> findByUserIdAndEpisodeDate(int userId, LocalDate episodeDate);
+
+    @EntityGraph(attributePaths = "medicineLogs")
+    Optional<Episode> findWithMedicineLogsByEpisodeId(int episodeId);
+
+    // Bulk delete that skips the cascade; remove the episode's medicine logs first. The date is the partition
+    // key, so the delete goes to one yearly partition instead of probing all of them.
+    @Modifying
+    @Query("DELETE FROM Episode e WHERE e.episodeId = :episodeId AND e.episodeDate = :episodeDate")
+    int deleteByEpisodeId(@Param("episodeId") int episodeId, @Param("episodeDate") LocalDate episodeDate);
     
-    @Query("SELECT e FROM Episode e WHERE e.username = :username AND e.episodeDate BETWEEN :startDate AND :endDate ORDER BY e.episodeDate")
-    List<Episode> findByUsernameAndDateRange(@Param("username") String username, 
+    // Half-open range [startDate, endDate) on the bare column so the (user_id, episode_date) index is used
+    @EntityGraph(attributePaths = "medicineLogs")
+    @Query("SELECT e FROM Episode e WHERE e.userId = :userId AND e.episodeDate >= :startDate AND e.episodeDate < :endDate ORDER BY e.episodeDate")
+    List<Episode> findByUserIdAndDateRange(@Param("userId") int userId,
                                             @Param("startDate") LocalDate startDate, 
                                             @Param("endDate") LocalDate endDate);
-}
 
+    @Query("SELECT e.episodeDate FROM Episode e WHERE e.userId = :userId AND e.episodeDate IN :dates")
+    List<LocalDate> findExistingDates(@Param("userId") int userId, @Param("dates") Collection<LocalDate> dates);
+
+    // Keyset pagination over (episode_date, episode_id): only ids are paged so the limit runs in SQL,
+    // then the page is loaded with its medicine logs in one query.
+
+    @Query("SELECT e.episodeId FROM Episode e WHERE e.userId = :userId ORDER BY e.episodeDate, e.episodeId")
+    List<Integer> findFirstPageIds(@Param("userId") int userId, Limit limit);
+
+    @Query("SELECT e.episodeId FROM Episode e WHERE e.userId = :userId AND (e.episodeDate > :afterDate OR (e.episodeDate = :afterDate AND e.episodeId > :afterId)) ORDER BY e.episodeDate, e.episodeId")
+    List<Integer> findPageIdsAfter(@Param("userId") int userId,
+                                   @Param("afterDate") LocalDate afterDate,
+                                   @Param("afterId") int afterId,
+                                   Limit limit);
+
+    @EntityGraph(attributePaths = "medicineLogs")
+    @Query("SELECT e FROM Episode e WHERE e.episodeId IN :ids ORDER BY e.episodeDate, e.episodeId")
+    List<Episode> findAllWithLogsByIds(@Param("ids") Collection<Integer> ids);
+
+    // Episodes tagged with a trigger. array_contains renders as episode_trigger_ids(trigger_mask) @> ARRAY[:triggerId]
+    // on Postgres, a lookup in the GIN expression index idx_episodes_user_trigger_ids; only matching rows are then
+    // loaded through findAllWithLogsByIds
+    @Query("SELECT e.episodeId FROM Episode e WHERE e.userId = :userId "
+            + "AND array_contains(episode_trigger_ids(e.triggerMask), :triggerId)")
+    List<Integer> findIdsByUserIdAndTrigger(@Param("userId") int userId, @Param("triggerId") int triggerId);
+
+    // One month of a user's episodes without their medicine logs, for the summary rebuild job
+    @Query("SELECT e FROM Episode e WHERE e.userId = :userId AND e.episodeDate >= :startDate AND e.episodeDate < :endDate")
+    List<Episode> findForSummary(@Param("userId") int userId,
+                                 @Param("startDate") LocalDate startDate,
+                                 @Param("endDate") LocalDate endDate);
+
+    // Version of a month that has no summary row yet (MonthlySummaryService.getVersionTag): moves with every insert
+    // and delete, since episode ids only grow. "0.0" once the month is empty.
+    @Query("SELECT CASE WHEN COUNT(e) = 0 THEN '0.0' ELSE CONCAT('e', COUNT(e), '.', MAX(e.episodeId)) END "
+            + "FROM Episode e WHERE e.userId = :userId AND e.episodeDate >= :startDate AND e.episodeDate < :endDate")
+    String findMonthVersionTag(@Param("userId") int userId,
+                               @Param("startDate") LocalDate startDate,
+                               @Param("endDate") LocalDate endDate);
+
+    boolean existsByUserIdAndEpisodeDateGreaterThanEqualAndEpisodeDateLessThan(int userId, LocalDate startDate,
+                                                                             LocalDate endDate);
+
+    // Forward-only cursor for the NDJSON history stream; must be consumed inside a transaction and closed
+    @EntityGraph(attributePaths = "medicineLogs")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT e FROM Episode e WHERE e.userId = :userId ORDER BY e.episodeDate, e.episodeId")
+    Stream<Episode> streamByUserId(@Param("userId") int userId);
+
+    // Keyset over every episode ordered by (user_id, episode_date, episode_id), for the summary rebuild job,
+    // which reads one row past each month it rebuilds to find the next one. Medicine logs stay lazy and are never touched.
+
+    @Query("SELECT e FROM Episode e ORDER BY e.userId, e.episodeDate, e.episodeId")
+    List<Episode> findFirstChunk(Limit limit);
+
+    @Query("SELECT e FROM Episode e WHERE e.userId > :userId OR (e.userId = :userId AND (e.episodeDate > :afterDate OR (e.episodeDate = :afterDate AND e.episodeId > :afterId))) ORDER BY e.userId, e.episodeDate, e.episodeId")
+    List<Episode> findChunkAfter(@Param("userId") int userId,
+                                 @Param("afterDate") LocalDate afterDate,
+                                 @Param("afterId") int afterId,
+                                 Limit limit);
+}
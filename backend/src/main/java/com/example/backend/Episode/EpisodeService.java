@@ -1,95 +1,487 @@
 package com.example.backend.Episode;
 
+import com.example.backend.Analytics.AnalyticsService;
 import com.example.backend.MedicineDailyLog.MedicineDailyLog;
 import com.example.backend.MedicineDailyLog.MedicineDailyLogRepository;
-import com.example.backend.Users.User;
+import com.example.backend.MonthlySummary.MonthlySummaryService;
+import com.example.backend.Partitions.YearPartitions;
+import com.example.backend.Push.EpisodePublisher;
+import com.example.backend.Replica.ReadYourWrites;
+import com.example.backend.Users.UserAccount;
 import com.example.backend.Users.UserRepository;
 import org.springframework.transaction.annotation.Transactional; // Use the Spring Transactional annotation
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*; 
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class EpisodeService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EpisodeService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private EpisodeRepository episodeRepository;
 
+    @Autowired
+    private EpisodeViewRepository episodeViewRepository;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private MedicineDailyLogRepository medicineDailyLogRepository;
 
-    public EpisodeService(EpisodeRepository episodeRepository, UserRepository userRepository, MedicineDailyLogRepository medicineDailyLogRepository) {
+    @Autowired
+    private MonthlySummaryService monthlySummaryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EpisodeMetrics episodeMetrics;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private EpisodePublisher episodePublisher;
+
+    // Absent unless partitions.enabled (Postgres with the yearly partitioned schema)
+    @Autowired(required = false)
+    private YearPartitions yearPartitions;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public EpisodeService(EpisodeRepository episodeRepository, EpisodeViewRepository episodeViewRepository,
+                          UserRepository userRepository, MedicineDailyLogRepository medicineDailyLogRepository,
+                          MonthlySummaryService monthlySummaryService, CacheManager cacheManager, EpisodeMetrics episodeMetrics,
+                          AnalyticsService analyticsService, ReadYourWrites readYourWrites,
+                          EpisodePublisher episodePublisher, PlatformTransactionManager transactionManager) {
         this.episodeRepository = episodeRepository;
+        this.episodeViewRepository = episodeViewRepository;
         this.userRepository = userRepository;
         this.medicineDailyLogRepository = medicineDailyLogRepository;
+        this.monthlySummaryService = monthlySummaryService;
+        this.cacheManager = cacheManager;
+        this.episodeMetrics = episodeMetrics;
+        this.analyticsService = analyticsService;
+        this.readYourWrites = readYourWrites;
+        this.episodePublisher = episodePublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Logging a day that already has an episode updates that episode in place (see mergeInto)
+    // instead of failing on the (user_id, episode_date) unique constraint. Two first logs of the same day can
+    // both find no episode; the one whose insert loses is retried once and merges into the winner's episode.
+    // Inside a caller's transaction there is nothing left to retry in, so the conflict goes to the caller.
+    // The year's partitions are ensured before the write transaction starts (see YearPartitions.ensureYear);
+    // a caller that wraps this in its own transaction calls ensurePartitions before opening it.
+    public Episode saveEpisode(Episode episode) {
+        UserAccount user = userRepository.findAccountByUsername(episode.getUsername());
+        if (user == null) {
+            throw new RuntimeException("User not found with username: " + episode.getUsername());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (episode.getEpisodeDate() == null) {
+            episode.setEpisodeDate(now.toLocalDate());
+        }
+        ensurePartition(episode.getEpisodeDate());
+
+        try {
+            return transactionTemplate.execute(status -> upsert(episode, user, now));
+        } catch (DataIntegrityViolationException e) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                throw e;
+            }
+            logger.info("Episode for {} on {} was logged concurrently, merging into it", user.username(), episode.getEpisodeDate());
+            resetIds(episode);
+            return transactionTemplate.execute(status -> upsert(episode, user, now));
+        }
+    }
+
+    private Episode upsert(Episode episode, UserAccount user, LocalDateTime now) {
+        Optional<Episode> existing = episodeRepository.findByUserIdAndEpisodeDate(user.userId(), episode.getEpisodeDate());
+        Episode saved;
+        if (existing.isPresent()) {
+            saved = existing.get();
+            saved.setUsername(user.username());
+            monthlySummaryService.forgetEpisode(saved);
+            mergeInto(saved, episode, now);
+        } else {
+            prepareForSave(episode, user, now);
+            saved = episodeRepository.save(episode);
+        }
+        monthlySummaryService.recordEpisode(saved);
+        evictMonthReport(saved);
+        analyticsService.invalidate(saved.getUsername());
+        readYourWrites.recordWrite(saved.getUsername());
+        episodePublisher.episodeSaved(saved);
+        episodeMetrics.episodeLogged(saved);
+        return saved;
+    }
+
+    // Clears the ids a failed insert handed out, so the episode and its medicine logs can be stored again
+    static void resetIds(Episode episode) {
+        episode.setEpisodeId(0);
+        if (episode.getMedicineLogs() != null) {
+            for (MedicineDailyLog medicine : episode.getMedicineLogs()) {
+                medicine.setId(null);
+            }
+        }
+    }
+
+    // Replaces an episode's values, optionally moving it to another free date. Empty if username has no such episode.
+    public Optional<Episode> updateEpisode(String username, int episodeId, Episode changes) {
+        if (changes.getEpisodeDate() != null) {
+            ensurePartition(changes.getEpisodeDate());
+        }
+        return transactionTemplate.execute(status -> replace(username, episodeId, changes));
+    }
+
+    private Optional<Episode> replace(String username, int episodeId, Episode changes) {
+        Optional<Episode> found = ownedBy(username, episodeRepository.findWithMedicineLogsByEpisodeId(episodeId));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Episode stored = found.get();
+        LocalDate date = changes.getEpisodeDate() != null ? changes.getEpisodeDate() : stored.getEpisodeDate();
+        if (!date.equals(stored.getEpisodeDate())
+                && !episodeRepository.findExistingDates(stored.getUserId(), List.of(date)).isEmpty()) {
+            throw new IllegalArgumentException("An episode is already logged for " + date);
+        }
+
+        monthlySummaryService.forgetEpisode(stored);
+        evictMonthReport(stored);
+        if (!date.equals(stored.getEpisodeDate())) {
+            episodePublisher.episodeDeleted(stored.getUsername(), stored.getEpisodeDate(), stored.getEpisodeId());
+        }
+        stored.setEpisodeDate(date);
+        replaceInto(stored, changes, LocalDateTime.now());
+        monthlySummaryService.recordEpisode(stored);
+        evictMonthReport(stored);
+        analyticsService.invalidate(stored.getUsername());
+        readYourWrites.recordWrite(stored.getUsername());
+        episodePublisher.episodeSaved(stored);
+        episodeMetrics.episodeLogged(stored);
+        return Optional.of(stored);
     }
 
+    // Bulk deletes for the medicine logs and the episode, so the logs are never loaded just to be removed.
+    // False if username has no such episode.
     @Transactional
-public void saveEpisode(Episode episode) {
-    User user = userRepository.findByUsername(episode.getUsername());
-    System.out.println("Received episode for username: " + episode.getUsername());
-    System.out.println("Number of medicine logs received: " + (episode.getMedicineLogs() != null ? episode.getMedicineLogs().size() : 0));
+    public boolean deleteEpisode(String username, int episodeId) {
+        Optional<Episode> found = ownedBy(username, episodeRepository.findById(episodeId));
+        if (found.isEmpty()) {
+            return false;
+        }
+        Episode episode = found.get();
+        monthlySummaryService.forgetEpisode(episode);
+        entityManager.detach(episode);
+        medicineDailyLogRepository.deleteByEpisodeId(episodeId, episode.getEpisodeDate());
+        episodeRepository.deleteByEpisodeId(episodeId, episode.getEpisodeDate());
+        evictMonthReport(episode);
+        analyticsService.invalidate(episode.getUsername());
+        readYourWrites.recordWrite(episode.getUsername());
+        episodePublisher.episodeDeleted(episode.getUsername(), episode.getEpisodeDate(), episodeId);
+        return true;
+    }
 
-    
-    if (user != null) {
-        episode.setUsername(user.getUsername());
+    // Editing an episode (PUT): every value, including the triggers and menstrual flag, comes from the request
+    static void replaceInto(Episode stored, Episode incoming, LocalDateTime now) {
+        stored.setTriggerMask(incoming.getTriggerMask());
+        stored.setMenstrualPeriod(incoming.isMenstrualPeriod());
+        mergeInto(stored, incoming, now);
+    }
+
+    // Re-logging a day: copies the incoming severities and notes onto the stored episode and reconciles its
+    // medicine logs as a diff; the triggers and menstrual flag stay as first logged (updateEpisode replaces those).
+    // Each incoming log is matched to a stored one by id, then by medicine and time taken, then by medicine alone.
+    // Matched logs are updated in place (unchanged ones cost no statement), unmatched stored logs are removed
+    // through orphanRemoval and unmatched incoming logs are inserted.
+    static void mergeInto(Episode stored, Episode incoming, LocalDateTime now) {
+        stored.setMorningSeverity(incoming.getMorningSeverity());
+        stored.setAfternoonSeverity(incoming.getAfternoonSeverity());
+        stored.setEveningSeverity(incoming.getEveningSeverity());
+        stored.setNotes(incoming.getNotes());
+
+        List<MedicineDailyLog> incomingLogs = incoming.getMedicineLogs() != null ? incoming.getMedicineLogs() : List.of();
+        List<MedicineDailyLog> unmatched = new ArrayList<>(stored.getMedicineLogs());
+        MedicineDailyLog[] matches = new MedicineDailyLog[incomingLogs.size()];
+        for (int pass = 0; pass < 3; pass++) {
+            for (int i = 0; i < matches.length; i++) {
+                if (matches[i] == null) {
+                    matches[i] = takeMatch(unmatched, incomingLogs.get(i), pass);
+                }
+            }
+        }
+
+        stored.getMedicineLogs().removeAll(unmatched);
+        for (int i = 0; i < matches.length; i++) {
+            MedicineDailyLog log = incomingLogs.get(i);
+            if (matches[i] != null) {
+                copyLog(matches[i], log, now);
+                // Follows the episode when updateEpisode moves it; a no-op otherwise
+                matches[i].setEpisodeDate(stored.getEpisodeDate());
+            } else {
+                log.setId(null);
+                prepareLog(log, stored, now);
+                stored.getMedicineLogs().add(log);
+            }
+        }
+    }
+
+    private static MedicineDailyLog takeMatch(List<MedicineDailyLog> candidates, MedicineDailyLog log, int pass) {
+        for (Iterator<MedicineDailyLog> it = candidates.iterator(); it.hasNext(); ) {
+            MedicineDailyLog candidate = it.next();
+            boolean matches = switch (pass) {
+                case 0 -> log.getId() != null && log.getId().equals(candidate.getId());
+                case 1 -> !isBlank(log.getTimeTaken()) && Objects.equals(log.getMedicineName(), candidate.getMedicineName())
+                        && log.getTimeTaken().equals(candidate.getTimeTaken());
+                default -> Objects.equals(log.getMedicineName(), candidate.getMedicineName());
+            };
+            if (matches) {
+                it.remove();
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // Blank timeTaken and missing medicineLogDate keep the stored values; updatedAt moves only on a real change
+    private static void copyLog(MedicineDailyLog target, MedicineDailyLog source, LocalDateTime now) {
+        String timeTaken = isBlank(source.getTimeTaken()) ? target.getTimeTaken() : source.getTimeTaken();
+        LocalDateTime logDate = source.getMedicineLogDate() != null ? source.getMedicineLogDate() : target.getMedicineLogDate();
+        boolean changed = !Objects.equals(target.getMedicineName(), source.getMedicineName())
+                || !Objects.equals(target.getDose(), source.getDose())
+                || !Objects.equals(target.getRelief(), source.getRelief())
+                || !Objects.equals(target.getNotes(), source.getNotes())
+                || !Objects.equals(target.getTimeTaken(), timeTaken)
+                || !Objects.equals(target.getMedicineLogDate(), logDate);
+        if (!changed) {
+            return;
+        }
+        target.setMedicineName(source.getMedicineName());
+        target.setDose(source.getDose());
+        target.setRelief(source.getRelief());
+        target.setNotes(source.getNotes());
+        target.setTimeTaken(timeTaken);
+        target.setMedicineLogDate(logDate);
+        target.setUpdatedAt(now);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    // Serialized month reports are also guarded by the month's revision; evicting just frees the stale bytes early
+    private void evictMonthReport(Episode episode) {
+        Cache monthReports = cacheManager.getCache(MonthReportService.CACHE_NAME);
+        if (monthReports != null) {
+            LocalDate date = episode.getEpisodeDate();
+            for (MonthReportFormat format : MonthReportFormat.values()) {
+                monthReports.evict(MonthReportService.cacheKey(episode.getUsername(), date.getYear(), date.getMonthValue(), format));
+            }
+        }
+    }
+
+    // Fills in the owner, defaults and the back-references an episode and its medicine logs need before they are persisted
+    static void prepareForSave(Episode episode, UserAccount user, LocalDateTime now) {
+        episode.setUserId(user.userId());
+        episode.setUsername(user.username());
         if (episode.getEpisodeDate() == null) {
-            episode.setEpisodeDate(LocalDateTime.now().toLocalDate());
+            episode.setEpisodeDate(now.toLocalDate());
         }
 
         if (episode.getMedicineLogs() != null && !episode.getMedicineLogs().isEmpty()) {
-            LocalDateTime now = LocalDateTime.now();
-            
             for (MedicineDailyLog medicine : episode.getMedicineLogs()) {
-                medicine.setEpisode(episode);
-                medicine.setUsername(user.getUsername());
-                medicine.setCreatedAt(now);
-                medicine.setUpdatedAt(now);
-                if (medicine.getMedicineLogDate() == null) {
-                    medicine.setMedicineLogDate(now);
-                }
-
-                if (medicine.getTimeTaken() == null || medicine.getTimeTaken().trim().isEmpty()) {
-                    medicine.setTimeTaken(LocalTime.now().toString());
-                }
+                prepareLog(medicine, episode, now);
             }
         }
-        
-        try {
-            episodeRepository.save(episode);
-        } catch (Exception e) {
-            System.err.println("--- FATAL ERROR: FAILED TO SAVE EPISODE ---");
-        e.printStackTrace();
-        System.err.println("--- END OF ERROR ---");
-        throw new RuntimeException("Failed to save episode", e);
     }
 
-    } else {
-        throw new RuntimeException("User not found with username: " + episode.getUsername());
+    private static void prepareLog(MedicineDailyLog medicine, Episode episode, LocalDateTime now) {
+        medicine.setEpisode(episode);
+        medicine.setEpisodeDate(episode.getEpisodeDate());
+        medicine.setUserId(episode.getUserId());
+        medicine.setCreatedAt(now);
+        medicine.setUpdatedAt(now);
+        if (medicine.getMedicineLogDate() == null) {
+            medicine.setMedicineLogDate(now);
+        }
+
+        if (medicine.getTimeTaken() == null || medicine.getTimeTaken().trim().isEmpty()) {
+            medicine.setTimeTaken(LocalTime.now().toString());
+        }
     }
-}
 
+    // Reads resolve the username to its user_id once, through the cached user lookup; an unknown user has no episodes
+
+    @Transactional(readOnly = true)
     public List<Episode> getEpisodesPerUser(String username) {
-        return episodeRepository.findByUsername(username);
+        Integer userId = userIdOf(username);
+        return userId == null ? List.of() : owned(episodeRepository.findByUserId(userId), username);
     }
     
      @Transactional(readOnly = true)
     public List<Episode> getUserEpisodesByMonth(String username, int year, int month) {
-        List<Episode> episodes = episodeRepository.findByUsernameAndMonth(username, year, month);
-        for (Episode episode : episodes) {
-            episode.getMedicineLogs().size(); 
+        Integer userId = userIdOf(username);
+        if (userId == null) {
+            return List.of();
         }
-        return episodes;
+        LocalDate firstOfMonth = LocalDate.of(year, month, 1);
+        return owned(episodeRepository.findByUserIdAndDateRange(userId, firstOfMonth, firstOfMonth.plusMonths(1)), username);
+    }
+
+    // Report reads: the same data as getEpisodesPerUser and getUserEpisodesByMonth as EpisodeView records,
+    // projected straight from the query without hydrating entities
+
+    @Transactional(readOnly = true)
+    public List<EpisodeView> getEpisodeViewsPerUser(String username) {
+        Integer userId = userIdOf(username);
+        return userId == null ? List.of() : EpisodeView.fromRows(episodeViewRepository.findRowsByUserId(userId), username);
+    }
+
+    @Transactional(readOnly = true)
+    public List<EpisodeView> getEpisodeViewsBetween(String username, LocalDate startDate, LocalDate endDate) {
+        Integer userId = userIdOf(username);
+        if (userId == null) {
+            return List.of();
+        }
+        return EpisodeView.fromRows(episodeViewRepository.findRowsByUserIdAndDateRange(userId, startDate, endDate), username);
+    }
+
+    // An unknown user gets an all-empty year, like the other reads returning no episodes
+    @Transactional(readOnly = true)
+    public YearHeatmap getYearHeatmap(String username, int year) {
+        Integer userId = userIdOf(username);
+        if (userId == null) {
+            return YearHeatmap.of(year, List.of());
+        }
+        LocalDate firstOfYear = LocalDate.of(year, 1, 1);
+        return YearHeatmap.of(year, episodeViewRepository.findHeatmapDays(userId, firstOfYear, firstOfYear.plusYears(1)));
     }
     
+    @Transactional(readOnly = true)
     public Optional<Episode> getEpisodeByDate(String username, LocalDate date) {
-        return episodeRepository.findByUsernameAndEpisodeDate(username, date);
+        Integer userId = userIdOf(username);
+        if (userId == null) {
+            return Optional.empty();
+        }
+        Optional<Episode> episode = episodeRepository.findByUserIdAndEpisodeDate(userId, date);
+        episode.ifPresent(found -> found.setUsername(username));
+        return episode;
+    }
+
+    // size outside 1..MAX_PAGE_SIZE is rejected rather than clamped, so a client never gets a shorter page than it asked for
+    @Transactional(readOnly = true)
+    public EpisodePage getEpisodePage(String username, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        EpisodePage.Cursor after = cursor == null || cursor.isBlank() ? null : EpisodePage.decodeCursor(cursor);
+        Integer userId = userIdOf(username);
+        if (userId == null) {
+            return new EpisodePage(List.of(), null);
+        }
+        List<Integer> ids = after == null
+                ? episodeRepository.findFirstPageIds(userId, Limit.of(size))
+                : episodeRepository.findPageIdsAfter(userId, after.episodeDate(), after.episodeId(), Limit.of(size));
+        if (ids.isEmpty()) {
+            return new EpisodePage(List.of(), null);
+        }
+
+        List<Episode> episodes = owned(episodeRepository.findAllWithLogsByIds(ids), username);
+        String nextCursor = ids.size() == size ? EpisodePage.encodeCursor(episodes.get(episodes.size() - 1)) : null;
+        return new EpisodePage(episodes, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Episode> getEpisodesWithTrigger(String username, int triggerId) {
+        TriggerMask.checkId(triggerId);
+        Integer userId = userIdOf(username);
+        if (userId == null) {
+            return List.of();
+        }
+        List<Integer> ids = episodeRepository.findIdsByUserIdAndTrigger(userId, triggerId);
+        return ids.isEmpty() ? List.of() : owned(episodeRepository.findAllWithLogsByIds(ids), username);
+    }
+
+    // Hands each episode to the sink as it comes off the cursor, then detaches it so the
+    // persistence context stays empty regardless of how long the history is.
+    @Transactional(readOnly = true)
+    public void streamEpisodes(String username, Consumer<Episode> sink) {
+        Integer userId = userIdOf(username);
+        if (userId == null) {
+            return;
+        }
+        try (Stream<Episode> episodes = episodeRepository.streamByUserId(userId)) {
+            episodes.forEach(episode -> {
+                episode.setUsername(username);
+                sink.accept(episode);
+                entityManager.detach(episode);
+            });
+        }
     }
-}
\ No newline at end of file
+
+    // Outside any transaction, like YearPartitions.ensureYear; a null date is today, as saveEpisode stores it
+    void ensurePartitions(Collection<Episode> episodes) {
+        for (Episode episode : episodes) {
+            ensurePartition(episode.getEpisodeDate() != null ? episode.getEpisodeDate() : LocalDate.now());
+        }
+    }
+
+    private void ensurePartition(LocalDate date) {
+        if (yearPartitions != null) {
+            yearPartitions.ensureYear(date.getYear());
+        }
+    }
+
+    private Integer userIdOf(String username) {
+        UserAccount user = username == null ? null : userRepository.findAccountByUsername(username);
+        return user != null ? user.userId() : null;
+    }
+
+    // The episode if it belongs to username, with the username filled in from the cached account
+    private Optional<Episode> ownedBy(String username, Optional<Episode> episode) {
+        Integer userId = userIdOf(username);
+        return episode.filter(found -> userId != null && found.getUserId() == userId)
+                .map(found -> {
+                    found.setUsername(username);
+                    return found;
+                });
+    }
+
+    private static List<Episode> owned(List<Episode> episodes, String username) {
+        for (Episode episode : episodes) {
+            episode.setUsername(username);
+        }
+        return episodes;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// Read-only copy of an episode for the report endpoints, built from EpisodeViewRow projections instead of
+// hydrated entities, so nothing enters the persistence context. Serializes to the same JSON as Episode.
+public record EpisodeView(
+        int episodeId,
+        String username,
+        LocalDate episodeDate,
+        // exposed as triggerIds, like Episode
+        @JsonIgnore long triggerMask,
+        boolean menstrualPeriod,
+        int morningSeverity,
+        int afternoonSeverity,
+        int eveningSeverity,
+        String notes,
+        List<MedicineLogView> medicineLogs) {
+
+    public int[] getTriggerIds() {
+        return TriggerMask.ids(triggerMask);
+    }
+
+    // Folds the joined rows (adjacent per episode, as EpisodeViewRepository orders them) into one view per episode
+    static List<EpisodeView> fromRows(List<EpisodeViewRow> rows, String username) {
+        List<EpisodeView> views = new ArrayList<>();
+        int start = 0;
+        while (start < rows.size()) {
+            EpisodeViewRow first = rows.get(start);
+            int end = start + 1;
+            while (end < rows.size() && rows.get(end).episodeId() == first.episodeId()) {
+                end++;
+            }
+            List<MedicineLogView> logs;
+            if (first.logId() == null) {
+                logs = List.of();
+            } else {
+                MedicineLogView[] copied = new MedicineLogView[end - start];
+                for (int i = start; i < end; i++) {
+                    copied[i - start] = rows.get(i).log();
+                }
+                logs = List.of(copied);
+            }
+            views.add(new EpisodeView(first.episodeId(), username, first.episodeDate(), first.triggerMask(),
+                    first.menstrualPeriod(), first.morningSeverity(), first.afternoonSeverity(), first.eveningSeverity(),
+                    first.notes(), logs));
+            start = end;
+        }
+        return views;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+// Report reads as EpisodeViewRow projections: one statement per read like the @EntityGraph methods in
+// EpisodeRepository, but the rows are plain records, so Hibernate builds no entities, snapshots or collection
+// wrappers and the persistence context stays empty. EpisodeView.fromRows folds them into views.
+public interface EpisodeViewRepository extends Repository<Episode, Integer> {
+
+    String ROW = "SELECT new com.example.backend.Episode.EpisodeViewRow(e.episodeId, e.episodeDate, e.triggerMask, "
+            + "e.menstrualPeriod, e.morningSeverity, e.afternoonSeverity, e.eveningSeverity, e.notes, "
+            + "m.id, m.medicineLogDate, m.medicineName, m.dose, m.relief, m.timeTaken, m.notes, m.createdAt, m.updatedAt) "
+            + "FROM Episode e LEFT JOIN e.medicineLogs m ON m.episodeDate = e.episodeDate ";
+
+    // Same half-open range as EpisodeRepository.findByUserIdAndDateRange
+    @Query(ROW + "WHERE e.userId = :userId AND e.episodeDate >= :startDate AND e.episodeDate < :endDate "
+            + "ORDER BY e.episodeDate, e.episodeId, m.id")
+    List<EpisodeViewRow> findRowsByUserIdAndDateRange(@Param("userId") int userId,
+                                                      @Param("startDate") LocalDate startDate,
+                                                      @Param("endDate") LocalDate endDate);
+
+    @Query(ROW + "WHERE e.userId = :userId ORDER BY e.episodeDate, e.episodeId, m.id")
+    List<EpisodeViewRow> findRowsByUserId(@Param("userId") int userId);
+
+    // Year heatmap: only the packed columns, one range scan of uk_episodes_user_date (one yearly partition on
+    // Postgres). Unordered; YearHeatmap places each row by its date.
+    @Query("SELECT new com.example.backend.Episode.HeatmapDayRow(e.episodeDate, e.morningSeverity, e.afternoonSeverity, "
+            + "e.eveningSeverity, e.menstrualPeriod) FROM Episode e "
+            + "WHERE e.userId = :userId AND e.episodeDate >= :startDate AND e.episodeDate < :endDate")
+    List<HeatmapDayRow> findHeatmapDays(@Param("userId") int userId,
+                                        @Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,30 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One row of the EpisodeViewRepository join: an episode's columns with one of its medicine logs (the log
+// columns are null for an episode without logs). Rows of one episode are adjacent.
+public record EpisodeViewRow(
+        int episodeId,
+        LocalDate episodeDate,
+        long triggerMask,
+        boolean menstrualPeriod,
+        int morningSeverity,
+        int afternoonSeverity,
+        int eveningSeverity,
+        String notes,
+        Long logId,
+        LocalDateTime medicineLogDate,
+        String medicineName,
+        String dose,
+        Integer relief,
+        String timeTaken,
+        String logNotes,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    MedicineLogView log() {
+        return new MedicineLogView(logId, medicineLogDate, medicineName, dose, relief, timeTaken, logNotes, createdAt, updatedAt);
+    }
+}
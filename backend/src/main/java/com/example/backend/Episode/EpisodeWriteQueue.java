@@ -0,0 +1,288 @@
+package com.example.backend.Episode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.Users.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+// Write-behind mode for POST /episodes/log (episode-queue.enabled). A logged episode is validated, appended
+// to EpisodeJournal and acknowledged; a single worker drains the queue every drain-interval, up to batch-size
+// entries per transaction, keeping only the latest entry per user and day. Draining goes through
+// EpisodeService.saveEpisode, an upsert, so replaying entries that were stored just before a crash is harmless.
+@Component
+@ConditionalOnProperty(prefix = "episode-queue", name = "enabled", havingValue = "true")
+public class EpisodeWriteQueue implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(EpisodeWriteQueue.class);
+
+    private record Pending(EpisodeJournal.Entry entry, long endOffset) {
+    }
+
+    private final EpisodeService episodeService;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EpisodeJournal journal;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration drainInterval;
+
+    // ReentrantLock rather than synchronized, which would pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock drainLock = new ReentrantLock();
+    // Guarded by lock; only drain removes from the head
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+
+    private final Counter rejected;
+    private final Counter dropped;
+
+    private ScheduledExecutorService worker;
+
+    public EpisodeWriteQueue(EpisodeService episodeService, UserRepository userRepository,
+                             PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${episode-queue.directory:data/episode-queue}") Path directory,
+                             @Value("${episode-queue.fsync:true}") boolean fsync,
+                             @Value("${episode-queue.capacity:10000}") int capacity,
+                             @Value("${episode-queue.batch-size:500}") int batchSize,
+                             @Value("${episode-queue.drain-interval:200ms}") Duration drainInterval) throws IOException {
+        this.episodeService = episodeService;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.drainInterval = drainInterval;
+
+        this.journal = EpisodeJournal.open(directory, objectMapper, fsync);
+        for (EpisodeJournal.Replayed replayed : journal.replay()) {
+            pending.add(new Pending(replayed.entry(), replayed.endOffset()));
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Replaying {} queued episodes from {}", pending.size(), directory);
+        }
+
+        Gauge.builder("episodes.queue.depth", this, EpisodeWriteQueue::depth)
+                .description("Logged episodes waiting to be stored")
+                .register(meterRegistry);
+        TimeGauge.builder("episodes.queue.lag", this, TimeUnit.MILLISECONDS, EpisodeWriteQueue::lagMillis)
+                .description("Age of the oldest logged episode waiting to be stored")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("episodes.queue.rejected")
+                .description("Logged episodes refused because the queue was full")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("episodes.queue.dropped")
+                .description("Queued episodes that could not be stored and were discarded")
+                .register(meterRegistry);
+    }
+
+    // Returns once the episode is durable in the journal
+    public Episode enqueue(Episode episode) {
+        if (episode.getUsername() == null || userRepository.findAccountByUsername(episode.getUsername()) == null) {
+            throw new IllegalArgumentException("User not found with username: " + episode.getUsername());
+        }
+        if (episode.getEpisodeDate() == null) {
+            episode.setEpisodeDate(LocalDate.now());
+        }
+        EpisodeJournal.Entry entry = new EpisodeJournal.Entry(System.currentTimeMillis(), episode);
+        try {
+            lock.lock();
+            try {
+                if (pending.size() >= capacity) {
+                    rejected.increment();
+                    throw new EpisodeQueueFullException(capacity);
+                }
+                pending.add(new Pending(entry, journal.append(entry)));
+            } finally {
+                lock.unlock();
+            }
+            // Outside the lock so concurrent appends share one fsync
+            journal.force();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to queue episode", e);
+        }
+        return episode;
+    }
+
+    public int depth() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double lagMillis() {
+        lock.lock();
+        try {
+            Pending oldest = pending.peekFirst();
+            return oldest == null ? 0 : Math.max(0, System.currentTimeMillis() - oldest.entry().enqueuedAt());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Stores everything queued so far; the worker calls this every drain-interval
+    void drain() {
+        drainLock.lock();
+        try {
+            while (drainBatch()) {
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // False when there is nothing left or the database is unavailable
+    private boolean drainBatch() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        lock.lock();
+        try {
+            for (Pending entry : pending) {
+                if (batch.size() == batchSize) {
+                    break;
+                }
+                batch.add(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        // Each entry is a whole day's log, so the latest one per user and day wins
+        Map<String, Episode> latest = new LinkedHashMap<>();
+        for (Pending entry : batch) {
+            Episode episode = entry.entry().episode();
+            latest.put(episode.getUsername() + '\u0000' + episode.getEpisodeDate(), episode);
+        }
+
+        try {
+            episodeService.ensurePartitions(latest.values());
+            transactionTemplate.executeWithoutResult(status -> latest.values().forEach(episodeService::saveEpisode));
+        } catch (RuntimeException batchFailure) {
+            if (isUnavailable(batchFailure)) {
+                logger.warn("Database unavailable, {} queued episodes will be retried", depth(), batchFailure);
+                return false;
+            }
+            // Something in the batch is bad; store the rest one by one and set the offenders aside
+            for (Episode episode : latest.values()) {
+                try {
+                    episodeService.saveEpisode(episode);
+                } catch (RuntimeException e) {
+                    if (isUnavailable(e)) {
+                        logger.warn("Database unavailable, {} queued episodes will be retried", depth(), e);
+                        return false;
+                    }
+                    dropped.increment();
+                    logger.error("Discarding queued episode for {} on {}", episode.getUsername(), episode.getEpisodeDate(), e);
+                }
+            }
+        }
+
+        lock.lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                pending.removeFirst();
+            }
+            journal.checkpoint(pending.isEmpty() ? journal.size() : batch.get(batch.size() - 1).endOffset());
+        } catch (IOException e) {
+            // The entries are stored; at worst they are replayed again after a restart
+            logger.warn("Failed to checkpoint the episode journal", e);
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    private static boolean isUnavailable(Throwable failure) {
+        Throwable cause = failure;
+        while (cause != null) {
+            if (cause instanceof TransientDataAccessException || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof SQLTransientException) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    @Override
+    public void start() {
+        worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "episode-queue");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = drainInterval.toMillis();
+        worker.scheduleWithFixedDelay(this::drainSafely, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void drainSafely() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            logger.error("Episode queue drain failed", e);
+        }
+    }
+
+    // Stores what is left before the database goes away; anything that doesn't make it is replayed next start
+    @Override
+    public void stop() {
+        worker.shutdown();
+        try {
+            worker.awaitTermination(30, TimeUnit.SECONDS);
+            drain();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Episode queue not fully drained on shutdown, {} episodes left in the journal", depth(), e);
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close the episode journal", e);
+        }
+    }
+
+    // Starts before and stops after the web server, so nothing is accepted without a worker to drain it
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return worker != null && !worker.isShutdown();
+    }
+}
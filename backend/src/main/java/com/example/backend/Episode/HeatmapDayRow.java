@@ -0,0 +1,12 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDate;
+
+// The columns of one episode that YearHeatmap packs; nothing else is read
+public record HeatmapDayRow(
+        LocalDate episodeDate,
+        int morningSeverity,
+        int afternoonSeverity,
+        int eveningSeverity,
+        boolean menstrualPeriod) {
+}
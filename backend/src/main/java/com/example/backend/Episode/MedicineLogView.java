@@ -0,0 +1,16 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDateTime;
+
+// Read-only copy of a medicine log inside an EpisodeView; same JSON as MedicineDailyLog
+public record MedicineLogView(
+        Long id,
+        LocalDateTime medicineLogDate,
+        String medicineName,
+        String dose,
+        Integer relief,
+        String timeTaken,
+        String notes,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
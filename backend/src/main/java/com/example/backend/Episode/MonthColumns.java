@@ -0,0 +1,93 @@
+package com.example.backend.Episode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compact, column-per-field layout of a month's episodes for the report page.
+// Field names appear once per month instead of once per episode, and the username, ids and
+// timestamps the report never shows are left out. Episode i is days[i], severities[3i..3i+2],
+// triggers[i] and notes[i]; medicine log j belongs to episode logEpisodes[j].
+public record MonthColumns(
+        int year,
+        int month,
+        // day of month, ascending
+        int[] days,
+        // morning, afternoon, evening for each episode
+        byte[] severities,
+        // EpisodeView.triggerMask, bit (id - 1) per trigger id
+        long[] triggers,
+        // bit (day - 1) set for each day with menstrualPeriod
+        int menstrualDays,
+        // null when the episode has no notes
+        String[] notes,
+        // each distinct medicine name once, in order of first use
+        String[] medicines,
+        int[] logEpisodes,
+        // index into medicines
+        int[] logMedicines,
+        String[] logDoses,
+        // -1 when relief was not recorded
+        int[] logRelief,
+        String[] logTimes,
+        String[] logNotes) {
+
+    public static MonthColumns of(int year, int month, List<EpisodeView> episodes) {
+        int size = episodes.size();
+        int[] days = new int[size];
+        byte[] severities = new byte[size * 3];
+        long[] triggers = new long[size];
+        int menstrualDays = 0;
+        String[] notes = new String[size];
+
+        Map<String, Integer> medicineIndex = new HashMap<>();
+        List<String> medicines = new ArrayList<>();
+        List<MedicineLogView> logs = new ArrayList<>();
+        List<Integer> logEpisodes = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            EpisodeView episode = episodes.get(i);
+            int day = episode.episodeDate().getDayOfMonth();
+            days[i] = day;
+            severities[i * 3] = (byte) episode.morningSeverity();
+            severities[i * 3 + 1] = (byte) episode.afternoonSeverity();
+            severities[i * 3 + 2] = (byte) episode.eveningSeverity();
+            triggers[i] = episode.triggerMask();
+            if (episode.menstrualPeriod()) {
+                menstrualDays |= 1 << (day - 1);
+            }
+            String episodeNotes = episode.notes();
+            notes[i] = episodeNotes == null || episodeNotes.isEmpty() ? null : episodeNotes;
+
+            for (MedicineLogView log : episode.medicineLogs()) {
+                logs.add(log);
+                logEpisodes.add(i);
+                medicineIndex.computeIfAbsent(log.medicineName(), name -> {
+                    medicines.add(name);
+                    return medicines.size() - 1;
+                });
+            }
+        }
+
+        int logCount = logs.size();
+        int[] logEpisodeColumn = new int[logCount];
+        int[] logMedicines = new int[logCount];
+        String[] logDoses = new String[logCount];
+        int[] logRelief = new int[logCount];
+        String[] logTimes = new String[logCount];
+        String[] logNotes = new String[logCount];
+        for (int j = 0; j < logCount; j++) {
+            MedicineLogView log = logs.get(j);
+            logEpisodeColumn[j] = logEpisodes.get(j);
+            logMedicines[j] = medicineIndex.get(log.medicineName());
+            logDoses[j] = log.dose();
+            logRelief[j] = log.relief() == null ? -1 : log.relief();
+            logTimes[j] = log.timeTaken();
+            logNotes[j] = log.notes();
+        }
+
+        return new MonthColumns(year, month, days, severities, triggers, menstrualDays, notes,
+                medicines.toArray(String[]::new), logEpisodeColumn, logMedicines, logDoses, logRelief, logTimes, logNotes);
+    }
+}
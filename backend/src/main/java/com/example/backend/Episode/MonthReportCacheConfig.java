@@ -0,0 +1,26 @@
+package com.example.backend.Episode;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Serialized month reports, bounded by total bytes rather than entry count
+@Configuration
+@ConditionalOnProperty(name = "reports.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class MonthReportCacheConfig {
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> monthReportCacheCustomizer(
+            @Value("${reports.response-cache.max-bytes:67108864}") long maxBytes) {
+        return cacheManager -> cacheManager.registerCustomCache(MonthReportService.CACHE_NAME, Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Object key, Object value) -> value instanceof MonthReportService.CachedReport report ? report.body().length : 1)
+                .recordStats()
+                .build());
+    }
+}
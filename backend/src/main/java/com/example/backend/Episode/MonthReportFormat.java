@@ -0,0 +1,44 @@
+package com.example.backend.Episode;
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+
+// Representations of the monthly report. Each has its own ETag and response cache entry.
+public enum MonthReportFormat {
+
+    // List<Episode> as JSON, what the report page reads today
+    JSON(MediaType.APPLICATION_JSON, ""),
+    // MonthColumns as CBOR
+    COLUMNAR_CBOR(MediaType.valueOf("application/cbor"), "-cbor");
+
+    private final MediaType mediaType;
+    private final String eTagSuffix;
+
+    MonthReportFormat(MediaType mediaType, String eTagSuffix) {
+        this.mediaType = mediaType;
+        this.eTagSuffix = eTagSuffix;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    String getETagSuffix() {
+        return eTagSuffix;
+    }
+
+    // JSON unless the client names application/cbor explicitly and ranks it at least as high as JSON
+    public static MonthReportFormat negotiate(List<MediaType> accepted) {
+        double cbor = 0;
+        double json = 0;
+        for (MediaType type : accepted) {
+            if (type.equalsTypeAndSubtype(COLUMNAR_CBOR.mediaType)) {
+                cbor = Math.max(cbor, type.getQualityValue());
+            } else if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                json = Math.max(json, type.getQualityValue());
+            }
+        }
+        return cbor > 0 && cbor >= json ? COLUMNAR_CBOR : JSON;
+    }
+}
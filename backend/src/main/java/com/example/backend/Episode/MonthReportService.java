@@ -0,0 +1,78 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import com.example.backend.MonthlySummary.MonthlySummaryService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+// Serves the monthly report pre-serialized, in each MonthReportFormat, keyed by the month's version tag.
+// The tag comes from the month's MonthlySummary revision, so checking freshness never reads episodes, and a
+// miss reads the month as EpisodeView records rather than entities.
+@Service
+public class MonthReportService {
+
+    public static final String CACHE_NAME = "monthReports";
+
+    record CachedReport(String versionTag, byte[] body) {
+    }
+
+    private final EpisodeService episodeService;
+    private final MonthlySummaryService monthlySummaryService;
+    private final ObjectMapper objectMapper;
+    // Kept out of the context so it never competes with Boot's ObjectMapper
+    private final ObjectMapper cborMapper = new CBORMapper();
+    // null when reports.response-cache.enabled=false
+    private final Cache cache;
+
+    public MonthReportService(EpisodeService episodeService, MonthlySummaryService monthlySummaryService,
+                              ObjectMapper objectMapper, CacheManager cacheManager) {
+        this.episodeService = episodeService;
+        this.monthlySummaryService = monthlySummaryService;
+        this.objectMapper = objectMapper;
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    public String getETag(String username, int year, int month, MonthReportFormat format) {
+        return "\"" + monthlySummaryService.getVersionTag(username, year, month) + format.getETagSuffix() + "\"";
+    }
+
+    public byte[] getMonth(String username, int year, int month, MonthReportFormat format, String eTag) {
+        String key = cacheKey(username, year, month, format);
+        if (cache != null) {
+            CachedReport cached = cache.get(key, CachedReport.class);
+            if (cached != null && cached.versionTag().equals(eTag)) {
+                return cached.body();
+            }
+        }
+
+        LocalDate firstOfMonth = LocalDate.of(year, month, 1);
+        byte[] body = serialize(year, month, format,
+                episodeService.getEpisodeViewsBetween(username, firstOfMonth, firstOfMonth.plusMonths(1)));
+        if (cache != null) {
+            cache.put(key, new CachedReport(eTag, body));
+        }
+        return body;
+    }
+
+    byte[] serialize(int year, int month, MonthReportFormat format, List<EpisodeView> episodes) {
+        try {
+            return switch (format) {
+                case JSON -> objectMapper.writeValueAsBytes(episodes);
+                case COLUMNAR_CBOR -> cborMapper.writeValueAsBytes(MonthColumns.of(year, month, episodes));
+            };
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize month report", e);
+        }
+    }
+
+    static String cacheKey(String username, int year, int month, MonthReportFormat format) {
+        return username + "/" + year + "/" + month + "/" + format;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.backend.Episode;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+
+// Makes episode_trigger_ids(trigger_mask) known to HQL as returning an integer array, so queries can hand it to
+// array_contains. The database function itself comes from db/migration/V4__episode_trigger_ids.sql; the tests bind
+// an H2 alias instead. Registered in META-INF/services.
+public class TriggerIdsFunction implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry()
+                .namedDescriptorBuilder("episode_trigger_ids")
+                .setExactArgumentCount(1)
+                .setInvariantType(functionContributions.getTypeConfiguration().getBasicTypeForJavaType(Integer[].class))
+                .register();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.backend.Episode;
+
+import java.util.Arrays;
+
+// Trigger ids 1..64 packed into one long, bit (id - 1) per trigger.
+// This is how Episode stores its triggers (episodes.trigger_mask) instead of a boxed Integer[] array column.
+public final class TriggerMask {
+
+    public static final int MAX_ID = Long.SIZE;
+
+    private TriggerMask() {
+    }
+
+    public static long bit(int triggerId) {
+        return 1L << (checkId(triggerId) - 1);
+    }
+
+    public static boolean isValid(int triggerId) {
+        return triggerId >= 1 && triggerId <= MAX_ID;
+    }
+
+    static String invalidIdsMessage(int[] triggerIds) {
+        return "Trigger ids must be between 1 and " + MAX_ID + ": " + Arrays.toString(triggerIds);
+    }
+
+    public static int checkId(int triggerId) {
+        if (!isValid(triggerId)) {
+            throw new IllegalArgumentException("Trigger id must be between 1 and " + MAX_ID + ": " + triggerId);
+        }
+        return triggerId;
+    }
+
+    public static long of(int[] triggerIds) {
+        long mask = 0;
+        if (triggerIds != null) {
+            for (int triggerId : triggerIds) {
+                mask |= bit(triggerId);
+            }
+        }
+        return mask;
+    }
+
+    // Ascending, each id once
+    public static int[] ids(long mask) {
+        int[] ids = new int[Long.bitCount(mask)];
+        int i = 0;
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            ids[i++] = Long.numberOfTrailingZeros(rest) + 1;
+        }
+        return ids;
+    }
+}
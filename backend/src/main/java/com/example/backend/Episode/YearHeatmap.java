@@ -0,0 +1,37 @@
+package com.example.backend.Episode;
+
+import java.time.Year;
+import java.util.List;
+
+// A year of severities for the year-at-a-glance view, one byte per day: days[dayOfYear - 1].
+// Bits 0-1 morning, 2-3 afternoon and 4-5 evening severity on the diary's 0-3 scale (larger values are
+// stored as 3), bit 6 menstrualPeriod, bit 7 set when the day has an episode at all. A day without an
+// episode is 0. Serialized as JSON the days are base64, about 500 characters for a whole year.
+public record YearHeatmap(int year, byte[] days) {
+
+    // Calendar years a Postgres date column and LocalDate both hold
+    public static final int MIN_YEAR = 1;
+    public static final int MAX_YEAR = 9999;
+
+    static final int MENSTRUAL = 1 << 6;
+    static final int LOGGED = 1 << 7;
+
+    static YearHeatmap of(int year, List<HeatmapDayRow> rows) {
+        byte[] days = new byte[Year.of(year).length()];
+        for (HeatmapDayRow row : rows) {
+            int packed = LOGGED
+                    | severity(row.morningSeverity())
+                    | severity(row.afternoonSeverity()) << 2
+                    | severity(row.eveningSeverity()) << 4;
+            if (row.menstrualPeriod()) {
+                packed |= MENSTRUAL;
+            }
+            days[row.episodeDate().getDayOfYear() - 1] = (byte) packed;
+        }
+        return new YearHeatmap(year, days);
+    }
+
+    private static int severity(int value) {
+        return Math.max(0, Math.min(value, 3));
+    }
+}
@@ -1,6 +1,12 @@
 package com.example.backend.Exception;
 
+import com.example.backend.Episode.EpisodeQueueFullException;
+
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -17,6 +23,43 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", ex.getMessage());
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    // A bounded pool (e.g. password hashing) is saturated; ask the client to back off
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleOverloaded(TaskRejectedException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Server is busy. Please try again shortly.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    // The write-behind episode queue is full (see EpisodeWriteQueue)
+    @ExceptionHandler(EpisodeQueueFullException.class)
+    public ResponseEntity<Map<String, String>> handleQueueFull(EpisodeQueueFullException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Too many episodes are being logged right now. Please try again shortly.");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    // A report query overran its timeout (see PopulationAnalyticsRepository)
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<Map<String, String>> handleQueryTimeout(QueryTimeoutException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "The report took too long. Please try again shortly.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(response);
+    }
+
      @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGenericException(Exception ex) {
         Map<String, String> response = new HashMap<>();
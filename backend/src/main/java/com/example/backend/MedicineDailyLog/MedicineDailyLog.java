@@ -1,16 +1,25 @@
 package com.example.backend.MedicineDailyLog;
 
 import jakarta.persistence.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import com.example.backend.Episode.*;
+import com.example.backend.Users.User;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "medicine_daily_log")
+@Table(name = "medicine_daily_log", indexes = {
+    // Join from an episode to its logs; Postgres doesn't index foreign keys (db/migrations/005_medicine_daily_log_episode_index.sql)
+    @Index(name = "idx_medicine_daily_log_episode", columnList = "episode_id"),
+    // Group key of the population medicine usage report (PopulationAnalyticsRepository)
+    @Index(name = "idx_medicine_daily_log_name_relief", columnList = "medicine_name, relief")
+})
 public class MedicineDailyLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "medicine_daily_log_seq")
+    @SequenceGenerator(name = "medicine_daily_log_seq", sequenceName = "medicine_daily_log_seq", allocationSize = 50)
     @Column(name = "medicince_log_id")
     private Long id;
 
@@ -20,8 +29,22 @@ public class MedicineDailyLog {
     @JsonBackReference
     private Episode episode;
 
-    @Column(name = "username")  
-    private String username; 
+    // Copy of the episode's date and this table's partition key (db/migration/V2__yearly_partitions.sql), so a
+    // year of logs lives in the same yearly partition as its episodes and is dropped together with them
+    @Column(name = "episode_date", nullable = false)
+    @JsonIgnore
+    private LocalDate episodeDate;
+
+    // Copied from the episode (db/migrations/006_user_id_keys.sql)
+    @Column(name = "user_id", nullable = false)
+    @JsonIgnore
+    private int userId;
+
+    // Only there to declare the foreign key; never loaded
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "fk_medicine_daily_log_user"))
+    @JsonIgnore
+    private User user;
 
     @Column(name = "medicine_log_date")
     private LocalDateTime medicineLogDate;
@@ -49,12 +72,12 @@ public class MedicineDailyLog {
 
     public MedicineDailyLog() {}
 
-    public MedicineDailyLog(Long id, Episode episode, String username, LocalDateTime medicineLogDate, String medicineName,
+    public MedicineDailyLog(Long id, Episode episode, int userId, LocalDateTime medicineLogDate, String medicineName,
                            String dose, Integer relief, String timeTaken, String notes,
                            LocalDateTime createdAt, LocalDateTime updatedAt) {
         this.id = id;
         this.episode = episode;
-        this.username = username;
+        this.userId = userId;
         this.medicineLogDate = medicineLogDate;
         this.medicineName = medicineName;
         this.dose = dose;
@@ -82,12 +105,20 @@ public class MedicineDailyLog {
         this.episode = episode;
     }
 
-    public String getUsername() {
-        return username;
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public LocalDate getEpisodeDate() {
+        return episodeDate;
     }
 
-    public void setUsername(String username) {
-        this.username = username;
+    public void setEpisodeDate(LocalDate episodeDate) {
+        this.episodeDate = episodeDate;
     }
 
     public LocalDateTime getMedicineLogDate() {
@@ -1,9 +1,19 @@
 package com.example.backend.MedicineDailyLog;
 
+import java.time.LocalDate;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 // A Spring Data repository must be an interface that extends JpaRepository
 @Repository
 public interface MedicineDailyLogRepository extends JpaRepository<MedicineDailyLog, Long> {
-}
\ No newline at end of file
+
+    // One statement for all of an episode's logs, without loading them; episodeDate picks the partition
+    @Modifying
+    @Query("DELETE FROM MedicineDailyLog m WHERE m.episode.episodeId = :episodeId AND m.episodeDate = :episodeDate")
+    int deleteByEpisodeId(@Param("episodeId") int episodeId, @Param("episodeDate") LocalDate episodeDate);
+}
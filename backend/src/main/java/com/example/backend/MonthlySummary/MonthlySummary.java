@@ -0,0 +1,194 @@
+package com.example.backend.MonthlySummary;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import com.example.backend.Episode.Episode;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.*;
+
+// Per-user, per-month rollup of episode severities, triggers and menstrual correlation.
+// Kept as running sums so a single episode can be added or removed without rescanning the month.
+@Entity
+@Table(name = "monthly_summaries", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_monthly_summaries_user_month", columnNames = {"username", "summary_year", "summary_month"})
+})
+public class MonthlySummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "summary_id")
+    private Long summaryId;
+
+    @Column(name = "username", nullable = false)
+    private String username;
+
+    @Column(name = "summary_year", nullable = false)
+    private int year;
+
+    @Column(name = "summary_month", nullable = false)
+    private int month;
+
+    @Column(name = "episode_count")
+    private int episodeCount;
+
+    @Column(name = "morning_severity_sum")
+    private long morningSeveritySum;
+
+    @Column(name = "afternoon_severity_sum")
+    private long afternoonSeveritySum;
+
+    @Column(name = "evening_severity_sum")
+    private long eveningSeveritySum;
+
+    @Column(name = "menstrual_days")
+    private int menstrualDays;
+
+    // Sum of morning + afternoon + evening severity over menstrual days only
+    @Column(name = "menstrual_severity_sum")
+    private long menstrualSeveritySum;
+
+    // Bumped on every write to the month; the month report ETag is derived from it
+    @Column(name = "revision", nullable = false)
+    @ColumnDefault("0")
+    private long revision;
+
+    // trigger_counts[i] is the number of episodes in the month that listed trigger id i + 1
+    @Column(name = "trigger_counts")
+    private Integer[] triggerCounts = new Integer[0];
+
+    public MonthlySummary() {
+    }
+
+    public MonthlySummary(String username, int year, int month) {
+        this.username = username;
+        this.year = year;
+        this.month = month;
+    }
+
+    // Rows created by MonthlySummaryRepository.insertIfAbsent have no trigger_counts yet
+    @PostLoad
+    void fillTriggerCounts() {
+        if (triggerCounts == null) {
+            triggerCounts = new Integer[0];
+        }
+    }
+
+    public void add(Episode episode) {
+        apply(episode, 1);
+    }
+
+    public void remove(Episode episode) {
+        apply(episode, -1);
+    }
+
+    public void touch() {
+        revision++;
+    }
+
+    public void copyTotalsFrom(MonthlySummary other) {
+        revision++;
+        episodeCount = other.episodeCount;
+        morningSeveritySum = other.morningSeveritySum;
+        afternoonSeveritySum = other.afternoonSeveritySum;
+        eveningSeveritySum = other.eveningSeveritySum;
+        menstrualDays = other.menstrualDays;
+        menstrualSeveritySum = other.menstrualSeveritySum;
+        triggerCounts = other.triggerCounts.clone();
+    }
+
+    private void apply(Episode episode, int sign) {
+        revision++;
+        episodeCount += sign;
+        morningSeveritySum += sign * episode.getMorningSeverity();
+        afternoonSeveritySum += sign * episode.getAfternoonSeverity();
+        eveningSeveritySum += sign * episode.getEveningSeverity();
+        if (episode.isMenstrualPeriod()) {
+            menstrualDays += sign;
+            menstrualSeveritySum += sign * dailySeverity(episode);
+        }
+        for (int triggerId : episode.getTriggerIds()) {
+            if (triggerId > triggerCounts.length) {
+                int oldLength = triggerCounts.length;
+                triggerCounts = Arrays.copyOf(triggerCounts, triggerId);
+                Arrays.fill(triggerCounts, oldLength, triggerId, 0);
+            }
+            triggerCounts[triggerId - 1] += sign;
+        }
+    }
+
+    private static int dailySeverity(Episode episode) {
+        return episode.getMorningSeverity() + episode.getAfternoonSeverity() + episode.getEveningSeverity();
+    }
+
+    private static double average(long sum, int count) {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    @JsonIgnore
+    public Long getSummaryId() {
+        return summaryId;
+    }
+
+    @JsonIgnore
+    public long getRevision() {
+        return revision;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getEpisodeCount() {
+        return episodeCount;
+    }
+
+    public double getAverageMorningSeverity() {
+        return average(morningSeveritySum, episodeCount);
+    }
+
+    public double getAverageAfternoonSeverity() {
+        return average(afternoonSeveritySum, episodeCount);
+    }
+
+    public double getAverageEveningSeverity() {
+        return average(eveningSeveritySum, episodeCount);
+    }
+
+    public int getMenstrualDays() {
+        return menstrualDays;
+    }
+
+    // Average daily (morning + afternoon + evening) severity on menstrual vs. other days
+    public double getAverageMenstrualDaySeverity() {
+        return average(menstrualSeveritySum, menstrualDays);
+    }
+
+    public double getAverageNonMenstrualDaySeverity() {
+        long total = morningSeveritySum + afternoonSeveritySum + eveningSeveritySum;
+        return average(total - menstrualSeveritySum, episodeCount - menstrualDays);
+    }
+
+    // Trigger id -> number of episodes, only for triggers that occurred
+    public Map<Integer, Integer> getTriggerCounts() {
+        Map<Integer, Integer> counts = new LinkedHashMap<>();
+        for (int i = 0; i < triggerCounts.length; i++) {
+            if (triggerCounts[i] != null && triggerCounts[i] > 0) {
+                counts.put(i + 1, triggerCounts[i]);
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.backend.MonthlySummary;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface MonthlySummaryRepository extends JpaRepository<MonthlySummary, Long> {
+
+    Optional<MonthlySummary> findByUsernameAndYearAndMonth(String username, int year, int month);
+
+    // "<summaryId>.<revision>": changes whenever any episode of the month is written
+    @Query("SELECT CONCAT(s.summaryId, '.', s.revision) FROM MonthlySummary s WHERE s.username = :username AND s.year = :year AND s.month = :month")
+    Optional<String> findVersionTag(@Param("username") String username, @Param("year") int year, @Param("month") int month);
+
+    // Row lock so concurrent writes to the same month serialize their increments
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<MonthlySummary> findForUpdateByUsernameAndYearAndMonth(String username, int year, int month);
+
+    // Creates an empty row for the month unless one exists; trigger_counts starts out NULL. Two first writes to a month both get past this
+    // (the second waits for the first to commit, then does nothing) instead of one failing on the unique key.
+    @Modifying
+    @Query(value = "INSERT INTO monthly_summaries (username, summary_year, summary_month, revision, episode_count, "
+            + "menstrual_days, morning_severity_sum, afternoon_severity_sum, evening_severity_sum, menstrual_severity_sum) "
+            + "VALUES (:username, :year, :month, 0, 0, 0, 0, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("username") String username, @Param("year") int year, @Param("month") int month);
+
+    // Keyset chunks over every summary row, for the rebuild job
+    @Query("SELECT s FROM MonthlySummary s WHERE s.summaryId > :afterId ORDER BY s.summaryId")
+    List<MonthlySummary> findChunkAfter(@Param("afterId") long afterId, Limit limit);
+}
@@ -0,0 +1,188 @@
+package com.example.backend.MonthlySummary;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.Episode.Episode;
+import com.example.backend.Episode.EpisodeRepository;
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserAccount;
+import com.example.backend.Users.UserRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Service
+public class MonthlySummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonthlySummaryService.class);
+
+    static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final MonthlySummaryRepository monthlySummaryRepository;
+    private final EpisodeRepository episodeRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public MonthlySummaryService(MonthlySummaryRepository monthlySummaryRepository, EpisodeRepository episodeRepository,
+                                 UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.monthlySummaryRepository = monthlySummaryRepository;
+        this.episodeRepository = episodeRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional(readOnly = true)
+    public MonthlySummary getSummary(String username, int year, int month) {
+        return monthlySummaryRepository.findByUsernameAndYearAndMonth(username, year, month)
+                .orElseGet(() -> new MonthlySummary(username, year, month));
+    }
+
+    // Version of a user's month, read from its summary row without touching the episodes. A month whose episodes
+    // predate the summaries has no row yet; its tag is derived from the episodes instead and nothing is written,
+    // since this runs on conditional GETs that may be served by the replica. The row appears with the month's next
+    // write, and its "<summaryId>.<revision>" tag can't collide with the derived "e<count>.<last episode_id>".
+    // "0.0" for a month without episodes.
+    @Transactional(readOnly = true)
+    public String getVersionTag(String username, int year, int month) {
+        Optional<String> tag = monthlySummaryRepository.findVersionTag(username, year, month);
+        if (tag.isPresent()) {
+            return tag.get();
+        }
+        UserAccount user = userRepository.findAccountByUsername(username);
+        if (user == null) {
+            return "0.0";
+        }
+        LocalDate start = LocalDate.of(year, month, 1);
+        return episodeRepository.findMonthVersionTag(user.userId(), start, start.plusMonths(1));
+    }
+
+    // Called from EpisodeService.saveEpisode; joins the caller's transaction so the rollup commits with the episode
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordEpisode(Episode episode) {
+        lockSummary(episode).add(episode);
+    }
+
+    // Bulk variant for imports: one locked summary lookup per month instead of per episode
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordEpisodes(Collection<Episode> episodes) {
+        Map<MonthKey, MonthlySummary> summaries = new LinkedHashMap<>();
+        for (Episode episode : episodes) {
+            LocalDate date = episode.getEpisodeDate();
+            MonthKey key = new MonthKey(episode.getUsername(), date.getYear(), date.getMonthValue());
+            summaries.computeIfAbsent(key, k -> lockSummary(episode)).add(episode);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void forgetEpisode(Episode episode) {
+        lockSummary(episode).remove(episode);
+    }
+
+    private MonthlySummary lockSummary(Episode episode) {
+        LocalDate date = episode.getEpisodeDate();
+        return lockSummary(episode.getUsername(), date.getYear(), date.getMonthValue());
+    }
+
+    private MonthlySummary lockSummary(String username, int year, int month) {
+        monthlySummaryRepository.insertIfAbsent(username, year, month);
+        return monthlySummaryRepository.findForUpdateByUsernameAndYearAndMonth(username, year, month)
+                .orElseThrow(() -> new IllegalStateException("Monthly summary row vanished for " + username));
+    }
+
+    // Recomputes every rollup from the episodes table, one month per transaction under the same row lock
+    // recordEpisode takes, so a concurrent write lands either before the recount (and is counted) or after it
+    // (and is added on top). Months are found by keyset: after rebuilding a month the next episode past its
+    // last day starts the next one. Summary rows whose month no longer has episodes are then zeroed, reading
+    // the rows in chunks of REBUILD_CHUNK_SIZE. Returns the number of months written.
+    public int rebuildAll() {
+        return rebuildAll(REBUILD_CHUNK_SIZE);
+    }
+
+    int rebuildAll(int chunkSize) {
+        int months = 0;
+        // Summaries stay keyed by username; episodes arrive grouped by user_id, so each owner is looked up once
+        Map<Integer, String> usernames = new HashMap<>();
+
+        Episode next = transactionTemplate.execute(status -> first(episodeRepository.findFirstChunk(Limit.of(1))));
+        while (next != null) {
+            int userId = next.getUserId();
+            LocalDate start = next.getEpisodeDate().withDayOfMonth(1);
+            String username = usernames.computeIfAbsent(userId,
+                    id -> userRepository.findById(id).map(User::getUsername).orElse(null));
+            if (username != null) {
+                transactionTemplate.executeWithoutResult(status -> rebuildMonth(userId, username, start));
+                months++;
+            }
+            LocalDate lastDay = start.plusMonths(1).minusDays(1);
+            next = transactionTemplate.execute(status -> first(
+                    episodeRepository.findChunkAfter(userId, lastDay, Integer.MAX_VALUE, Limit.of(1))));
+        }
+
+        long afterId = 0;
+        while (true) {
+            long after = afterId;
+            List<MonthlySummary> chunk = monthlySummaryRepository.findChunkAfter(after, Limit.of(chunkSize));
+            for (MonthlySummary summary : chunk) {
+                Boolean zeroed = transactionTemplate.execute(status -> zeroIfEmpty(summary));
+                if (Boolean.TRUE.equals(zeroed)) {
+                    months++;
+                }
+            }
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getSummaryId();
+        }
+
+        logger.info("Rebuilt {} monthly summaries", months);
+        return months;
+    }
+
+    private void rebuildMonth(int userId, String username, LocalDate start) {
+        MonthlySummary summary = lockSummary(username, start.getYear(), start.getMonthValue());
+        MonthlySummary computed = new MonthlySummary(username, start.getYear(), start.getMonthValue());
+        for (Episode episode : episodeRepository.findForSummary(userId, start, start.plusMonths(1))) {
+            computed.add(episode);
+        }
+        summary.copyTotalsFrom(computed);
+    }
+
+    // Months rebuilt from episodes above are never empty here; this catches rows whose episodes were all
+    // deleted or moved, and rows of users that no longer exist
+    private boolean zeroIfEmpty(MonthlySummary stale) {
+        MonthlySummary summary = monthlySummaryRepository
+                .findForUpdateByUsernameAndYearAndMonth(stale.getUsername(), stale.getYear(), stale.getMonth())
+                .orElse(null);
+        if (summary == null || summary.getEpisodeCount() == 0) {
+            return false;
+        }
+        LocalDate start = LocalDate.of(summary.getYear(), summary.getMonth(), 1);
+        UserAccount user = userRepository.findAccountByUsername(summary.getUsername());
+        if (user != null && episodeRepository.existsByUserIdAndEpisodeDateGreaterThanEqualAndEpisodeDateLessThan(
+                user.userId(), start, start.plusMonths(1))) {
+            return false;
+        }
+        summary.copyTotalsFrom(new MonthlySummary(summary.getUsername(), summary.getYear(), summary.getMonth()));
+        return true;
+    }
+
+    private static Episode first(List<Episode> episodes) {
+        return episodes.isEmpty() ? null : episodes.get(0);
+    }
+
+    private record MonthKey(String username, int year, int month) {
+    }
+}
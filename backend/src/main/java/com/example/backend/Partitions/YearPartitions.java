@@ -0,0 +1,112 @@
+package com.example.backend.Partitions;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Yearly range partitions of episodes and medicine_daily_log (db/migration/V2__yearly_partitions.sql).
+// Postgres rejects a row whose year has no partition, so writers call ensureYear before storing an episode;
+// years already seen cost a set lookup. A background check keeps years-ahead future years in place so the
+// first write of a new year never waits on the DDL; ensureYear only does real work for backdated years.
+@Component
+@ConditionalOnProperty(prefix = "partitions", name = "enabled", havingValue = "true")
+public class YearPartitions implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(YearPartitions.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int yearsAhead;
+    private final Duration checkInterval;
+    // Years whose partitions are known to exist
+    private final Set<Integer> years = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService worker;
+
+    public YearPartitions(DataSource dataSource, PlatformTransactionManager transactionManager,
+                          @Value("${partitions.years-ahead:1}") int yearsAhead,
+                          @Value("${partitions.check-interval:6h}") Duration checkInterval) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.yearsAhead = yearsAhead;
+        this.checkInterval = checkInterval;
+    }
+
+    // Creates the year's partitions in a short transaction of its own. Creating a partition takes an ACCESS
+    // EXCLUSIVE lock on the parent tables until commit, so this must run before the writer's transaction starts:
+    // inside it the lock would block every reader and writer of the tables until the write commits. Years
+    // already seen return at once, in a transaction or not.
+    public void ensureYear(int year) {
+        if (years.contains(year)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Partitions for " + year + " must be created before the write transaction starts");
+        }
+        Integer created = transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SELECT ensure_year_partitions(?, ?)", Integer.class, year, year));
+        if (created != null && created > 0) {
+            logger.info("Created partitions for {}", year);
+        }
+        years.add(year);
+    }
+
+    // Current year through years-ahead; called on start and every check-interval
+    void ensureAhead() {
+        int first = LocalDate.now().getYear();
+        int last = first + yearsAhead;
+        Integer created = transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SELECT ensure_year_partitions(?, ?)", Integer.class, first, last));
+        if (created != null && created > 0) {
+            logger.info("Created {} partitions for {}-{}", created, first, last);
+        }
+        for (int year = first; year <= last; year++) {
+            years.add(year);
+        }
+    }
+
+    private void ensureAheadSafely() {
+        try {
+            ensureAhead();
+        } catch (RuntimeException e) {
+            logger.error("Creating upcoming partitions failed", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "year-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        worker.scheduleWithFixedDelay(this::ensureAheadSafely, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return worker != null && !worker.isShutdown();
+    }
+}
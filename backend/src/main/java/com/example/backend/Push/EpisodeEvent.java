@@ -0,0 +1,13 @@
+package com.example.backend.Push;
+
+import java.time.LocalDate;
+
+// Delta pushed to the owner's /user/queue/episodes: the episode on that date was saved or deleted.
+// Subscribers refetch just that day (GET /episodes/user/{username}/date/{date}) or drop it.
+public record EpisodeEvent(Type type, String username, LocalDate date, int episodeId) {
+
+    public enum Type {
+        SAVED,
+        DELETED
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.backend.Push;
+
+import java.time.LocalDate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.backend.Episode.Episode;
+
+// Pushes EpisodeEvents to their owner's sessions once the write commits, so subscribers never see rolled-back
+// changes. Each user subscribes to /user/queue/episodes, which the broker resolves to a queue of that session.
+@Component
+public class EpisodePublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EpisodePublisher.class);
+
+    public static final String QUEUE = "/queue/episodes";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public EpisodePublisher(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public void episodeSaved(Episode episode) {
+        publish(new EpisodeEvent(EpisodeEvent.Type.SAVED, episode.getUsername(), episode.getEpisodeDate(), episode.getEpisodeId()));
+    }
+
+    public void episodeDeleted(String username, LocalDate date, int episodeId) {
+        publish(new EpisodeEvent(EpisodeEvent.Type.DELETED, username, date, episodeId));
+    }
+
+    private void publish(EpisodeEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(event);
+            }
+        });
+    }
+
+    // Returns once the broker channel's pool has the event; a push failure never fails the write
+    private void send(EpisodeEvent event) {
+        try {
+            messagingTemplate.convertAndSendToUser(event.username(), QUEUE, event);
+        } catch (MessagingException e) {
+            logger.warn("Failed to push {} episode event for {}", event.type(), event.username(), e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.backend.Push;
+
+import java.security.Principal;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+import com.example.backend.Users.UserService;
+
+// Guards the inbound STOMP channel. CONNECT must carry the user's login and passcode; the session then belongs
+// to that user and convertAndSendToUser reaches it. SUBSCRIBE is only allowed to the session's own
+// /user/queue/** destinations, never to another user's or to the broker's resolved per-session queues, and
+// SEND is refused since nothing listens for client messages. A refused frame closes the session with an ERROR.
+class PushChannelInterceptor implements ChannelInterceptor {
+
+    static final String OWN_DESTINATIONS = "/user/queue/";
+
+    private final UserService userService;
+
+    PushChannelInterceptor(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        switch (accessor.getCommand()) {
+            case CONNECT, STOMP -> accessor.setUser(authenticate(message, accessor));
+            case SUBSCRIBE -> checkSubscription(message, accessor);
+            case SEND -> throw new MessageDeliveryException(message, "Clients can't send to " + accessor.getDestination());
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    // Hashing blocks this inbound channel thread, once per connection
+    private Principal authenticate(Message<?> message, StompHeaderAccessor accessor) {
+        String username = accessor.getLogin();
+        if (username == null || !userService.authenticateUser(username, accessor.getPasscode()).join()) {
+            throw new MessageDeliveryException(message, "Invalid login");
+        }
+        return () -> username;
+    }
+
+    private void checkSubscription(Message<?> message, StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (accessor.getUser() == null) {
+            throw new MessageDeliveryException(message, "Log in before subscribing");
+        }
+        if (destination == null || !destination.startsWith(OWN_DESTINATIONS)) {
+            throw new MessageDeliveryException(message, "Can't subscribe to " + destination);
+        }
+    }
+}
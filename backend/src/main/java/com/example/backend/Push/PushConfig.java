@@ -0,0 +1,83 @@
+package com.example.backend.Push;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import com.example.backend.Users.UserService;
+
+// STOMP over WebSocket at /ws with the in-memory broker; EpisodePublisher sends to each user's
+// /user/queue/episodes, and PushChannelInterceptor keeps sessions to their own user's destinations.
+// Publishing only hands the event to the broker channel's pool, and the broker's per-subscriber copies
+// go out on the outbound pool. A session's sends are buffered on its own, so a slow client never holds a
+// thread; one that stays behind send-time-limit or send-buffer-size-limit is disconnected and resyncs
+// by refetching its months on reconnect.
+@Configuration
+@EnableWebSocketMessageBroker
+public class PushConfig implements WebSocketMessageBrokerConfigurer {
+
+    @Value("${push.allowed-origins:http://localhost:5173}")
+    private String[] allowedOrigins;
+
+    @Value("${push.threads:8}")
+    private int threads;
+
+    @Value("${push.send-time-limit-ms:5000}")
+    private int sendTimeLimit;
+
+    @Value("${push.send-buffer-size-limit:262144}")
+    private int sendBufferSizeLimit;
+
+    @Autowired
+    private UserService userService;
+
+    // The broker's own scheduler bean, defined by @EnableWebSocketMessageBroker
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws").setAllowedOrigins(allowedOrigins);
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        // Heartbeats let the broker notice dead connections and drop their subscriptions
+        registry.enableSimpleBroker("/queue")
+                .setHeartbeatValue(new long[] { 10000, 10000 })
+                .setTaskScheduler(messageBrokerTaskScheduler);
+        registry.configureBrokerChannel().taskExecutor()
+                .corePoolSize(2)
+                .maxPoolSize(2);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new PushChannelInterceptor(userService));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(threads)
+                .maxPoolSize(threads);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit);
+    }
+}
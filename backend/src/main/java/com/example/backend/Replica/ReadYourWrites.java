@@ -0,0 +1,74 @@
+package com.example.backend.Replica;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Users who wrote within the last replica-routing.sticky-window keep reading from the primary, so replica
+// lag never hides their own writes from them. The reading user is bound per request by ReadYourWritesInterceptor.
+@Component
+public class ReadYourWrites {
+
+    private static final ThreadLocal<String> currentUser = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(@Value("${replica-routing.sticky-window:5s}") Duration stickyWindow) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    // Starts the user's window once the current transaction commits, or right away outside one
+    public void recordWrite(String username) {
+        if (username == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentWriters.put(username, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(username, Boolean.TRUE);
+            }
+        });
+    }
+
+    // Runs the reads in action on behalf of username, for callers outside a bound request
+    public <T> T readAs(String username, Supplier<T> action) {
+        String previous = currentUser.get();
+        currentUser.set(username);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                currentUser.remove();
+            } else {
+                currentUser.set(previous);
+            }
+        }
+    }
+
+    void bindUser(String username) {
+        currentUser.set(username);
+    }
+
+    void clearUser() {
+        currentUser.remove();
+    }
+
+    boolean readsFromPrimary() {
+        String username = currentUser.get();
+        return username != null && recentWriters.getIfPresent(username) != null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.backend.Search;
+
+import java.util.List;
+
+// Ranked search over one user's episode and medicine log notes. search.mode picks the implementation:
+// postgres (PostgresNoteSearch, the GIN indexes from db/migration/V3__notes_search.sql) or scan
+// (ScanNoteSearch, for H2 in tests and benchmarks).
+public interface NoteSearch {
+
+    // Hits ordered by score, then newest episode first; an episode matches when its own notes or any of its
+    // medicine logs' notes contain every term of the query
+    List<NoteSearchHit> search(int userId, String query, int offset, int limit);
+}
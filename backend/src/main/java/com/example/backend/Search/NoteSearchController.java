@@ -0,0 +1,28 @@
+package com.example.backend.Search;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/search")
+public class NoteSearchController {
+
+    private final NoteSearchService noteSearchService;
+
+    public NoteSearchController(NoteSearchService noteSearchService) {
+        this.noteSearchService = noteSearchService;
+    }
+
+    // Ranked hits over the user's episode and medicine notes, e.g. ?q=red wine; pass nextPage back as page=
+    @GetMapping("/user/{username}")
+    public NoteSearchPage searchNotes(
+            @PathVariable String username,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + NoteSearchService.DEFAULT_PAGE_SIZE) int size) {
+        return noteSearchService.search(username, q, page, size);
+    }
+}
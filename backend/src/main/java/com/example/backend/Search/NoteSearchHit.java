@@ -0,0 +1,12 @@
+package com.example.backend.Search;
+
+import java.time.LocalDate;
+
+// One episode matching a notes search. score grows with how often and how closely the query terms occur in
+// the episode's notes and its medicine logs' notes. snippet is an excerpt with each match wrapped in
+// MATCH_START/MATCH_END; excerpts from different notes are joined by " … ".
+public record NoteSearchHit(int episodeId, LocalDate episodeDate, double score, String snippet) {
+
+    public static final String MATCH_START = "«";
+    public static final String MATCH_END = "»";
+}
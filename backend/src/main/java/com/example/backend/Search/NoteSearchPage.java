@@ -0,0 +1,7 @@
+package com.example.backend.Search;
+
+import java.util.List;
+
+// One page of search hits, best first, plus the page to ask for next (null on the last page)
+public record NoteSearchPage(List<NoteSearchHit> hits, Integer nextPage) {
+}
@@ -0,0 +1,56 @@
+package com.example.backend.Search;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.backend.Users.UserAccount;
+import com.example.backend.Users.UserRepository;
+
+@Service
+public class NoteSearchService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    // Deep pages of a ranked search are never looked at, and every page ranks all the matches before it
+    static final int MAX_PAGE = 50;
+    static final int MAX_QUERY_LENGTH = 200;
+
+    private final NoteSearch noteSearch;
+    private final UserRepository userRepository;
+
+    public NoteSearchService(NoteSearch noteSearch, UserRepository userRepository) {
+        this.noteSearch = noteSearch;
+        this.userRepository = userRepository;
+    }
+
+    // An unknown user has no notes to match. size outside 1..MAX_PAGE_SIZE is rejected rather than clamped,
+    // like EpisodeService.getEpisodePage
+    @Transactional(readOnly = true)
+    public NoteSearchPage search(String username, String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is empty");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query is longer than " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (page < 0 || page > MAX_PAGE) {
+            throw new IllegalArgumentException("Page must be between 0 and " + MAX_PAGE);
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        UserAccount user = username == null ? null : userRepository.findAccountByUsername(username);
+        if (user == null) {
+            return new NoteSearchPage(List.of(), null);
+        }
+
+        // One extra hit tells whether there is a next page
+        List<NoteSearchHit> hits = noteSearch.search(user.userId(), query.trim(), page * size, size + 1);
+        if (hits.size() > size) {
+            return new NoteSearchPage(hits.subList(0, size), page < MAX_PAGE ? page + 1 : null);
+        }
+        return new NoteSearchPage(hits, null);
+    }
+}
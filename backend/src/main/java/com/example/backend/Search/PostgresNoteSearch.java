@@ -0,0 +1,63 @@
+package com.example.backend.Search;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Full-text search on Postgres. Each table has a (user_id, tsvector) GIN index (db/migration/V3__notes_search.sql),
+// so finding a user's matches is an index lookup whose cost follows the number of matches, not the length of the
+// history. The WHERE clauses repeat the indexes' expressions and predicate exactly so the planner can use them.
+// Every match is scored, but only the requested page gets snippets: ts_headline re-parses the text and is the
+// expensive part. An episode's notes come first in its snippet, then its medicine logs' in the order they were logged.
+@Component
+@ConditionalOnProperty(prefix = "search", name = "mode", havingValue = "postgres")
+public class PostgresNoteSearch implements NoteSearch {
+
+    private static final String HEADLINE_OPTIONS = "StartSel=" + NoteSearchHit.MATCH_START + ", StopSel=" + NoteSearchHit.MATCH_END
+            + ", MinWords=8, MaxWords=24, MaxFragments=2, FragmentDelimiter=\" … \"";
+
+    private static final String SEARCH_SQL = """
+            WITH query AS (SELECT websearch_to_tsquery('english', ?) AS q),
+            matches AS (
+                SELECT e.episode_id, e.episode_date, e.notes, 0 AS log_id,
+                       ts_rank_cd(to_tsvector('english', e.notes), query.q) AS score
+                FROM episodes e, query
+                WHERE e.user_id = ? AND e.notes <> '' AND to_tsvector('english', e.notes) @@ query.q
+                UNION ALL
+                SELECT m.episode_id, m.episode_date, m.notes, m.medicince_log_id,
+                       ts_rank_cd(to_tsvector('english', m.notes), query.q)
+                FROM medicine_daily_log m, query
+                WHERE m.user_id = ? AND m.notes <> '' AND to_tsvector('english', m.notes) @@ query.q
+            ),
+            page AS (
+                SELECT episode_id, episode_date, sum(score) AS score, string_agg(notes, ' … ' ORDER BY log_id) AS notes
+                FROM matches
+                GROUP BY episode_id, episode_date
+                ORDER BY score DESC, episode_date DESC, episode_id
+                LIMIT ? OFFSET ?
+            )
+            SELECT page.episode_id, page.episode_date, page.score, ts_headline('english', page.notes, query.q, ?) AS snippet
+            FROM page, query
+            ORDER BY page.score DESC, page.episode_date DESC, page.episode_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresNoteSearch(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public List<NoteSearchHit> search(int userId, String query, int offset, int limit) {
+        return jdbcTemplate.query(SEARCH_SQL, (row, rowNum) -> new NoteSearchHit(
+                row.getInt("episode_id"),
+                row.getDate("episode_date").toLocalDate(),
+                row.getDouble("score"),
+                row.getString("snippet")),
+                query, userId, userId, limit, offset, HEADLINE_OPTIONS);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.backend.Search;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Stand-in for PostgresNoteSearch where there is no text search (H2 in tests and benchmarks): reads every note
+// of the user and matches in Java, so its cost grows with the history. Same contract, simpler matching: a term
+// matches a word it is a prefix of ("wine" finds "wines") instead of Postgres' stemming, and the score counts
+// matching words.
+@Component
+@ConditionalOnProperty(prefix = "search", name = "mode", havingValue = "scan")
+public class ScanNoteSearch implements NoteSearch {
+
+    private static final int SNIPPET_WORDS = 24;
+    private static final int SNIPPET_WORDS_BEFORE = 8;
+    private static final int MAX_FRAGMENTS = 2;
+
+    private static final String NOTES_SQL = """
+            SELECT episode_id, episode_date, notes, 0 AS log_id FROM episodes WHERE user_id = ? AND notes <> ''
+            UNION ALL
+            SELECT episode_id, episode_date, notes, medicince_log_id FROM medicine_daily_log WHERE user_id = ? AND notes <> ''
+            ORDER BY episode_id, log_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScanNoteSearch(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public List<NoteSearchHit> search(int userId, String query, int offset, int limit) {
+        String[] terms = words(query);
+        if (terms.length == 0) {
+            return List.of();
+        }
+        Map<Integer, Match> matches = new LinkedHashMap<>();
+        jdbcTemplate.query(NOTES_SQL, row -> {
+            String notes = row.getString("notes");
+            String[] words = notes.split("\\s+");
+            boolean[] matched = new boolean[words.length];
+            int score = 0;
+            boolean[] found = new boolean[terms.length];
+            for (int i = 0; i < words.length; i++) {
+                String word = normalize(words[i]);
+                for (int t = 0; t < terms.length; t++) {
+                    if (!word.isEmpty() && word.startsWith(terms[t])) {
+                        matched[i] = true;
+                        found[t] = true;
+                    }
+                }
+                if (matched[i]) {
+                    score++;
+                }
+            }
+            for (boolean term : found) {
+                if (!term) {
+                    return;
+                }
+            }
+            LocalDate episodeDate = row.getObject("episode_date", LocalDate.class);
+            Match match = matches.computeIfAbsent(row.getInt("episode_id"), id -> new Match(id, episodeDate));
+            match.score += score;
+            if (match.fragments.size() < MAX_FRAGMENTS) {
+                match.fragments.add(fragment(words, matched));
+            }
+        }, userId, userId);
+
+        return matches.values().stream()
+                .sorted(Comparator.<Match>comparingInt(match -> match.score).reversed()
+                        .thenComparing(match -> match.episodeDate, Comparator.reverseOrder())
+                        .thenComparingInt(match -> match.episodeId))
+                .skip(offset)
+                .limit(limit)
+                .map(match -> new NoteSearchHit(match.episodeId, match.episodeDate, match.score, String.join(" … ", match.fragments)))
+                .toList();
+    }
+
+    // Up to SNIPPET_WORDS words starting a little before the first match, matches marked
+    private static String fragment(String[] words, boolean[] matched) {
+        int first = 0;
+        while (!matched[first]) {
+            first++;
+        }
+        int start = Math.max(0, first - SNIPPET_WORDS_BEFORE);
+        int end = Math.min(words.length, start + SNIPPET_WORDS);
+        StringBuilder fragment = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            if (i > start) {
+                fragment.append(' ');
+            }
+            if (matched[i]) {
+                fragment.append(NoteSearchHit.MATCH_START).append(words[i]).append(NoteSearchHit.MATCH_END);
+            } else {
+                fragment.append(words[i]);
+            }
+        }
+        return fragment.toString();
+    }
+
+    private static String[] words(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private static String normalize(String word) {
+        return word.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]", "");
+    }
+
+    // One episode's hits across its own notes and its logs' notes
+    private static final class Match {
+        final int episodeId;
+        final LocalDate episodeDate;
+        int score;
+        final List<String> fragments = new ArrayList<>();
+
+        Match(int episodeId, LocalDate episodeDate) {
+            this.episodeId = episodeId;
+            this.episodeDate = episodeDate;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.example.backend.Users;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 @Entity
 @Table(name = "users")
 public class User {
@@ -12,7 +14,9 @@ public class User {
     private Integer userId;
     @Column(name = "username")
     private String username;
+    // Accepted from login/register bodies but never serialized back out
     @Column(name = "password_hash", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     @Column(nullable = false)
     private String email;
@@ -32,6 +36,10 @@ public class User {
         this.isAdmin = isAdmin;
     }
 
+    public Integer getUserId() {
+        return userId;
+    }
+
     public Boolean getIsAdmin() {
         return isAdmin;
     }
@@ -0,0 +1,6 @@
+package com.example.backend.Users;
+
+// The fields of a user that request handling needs, as an immutable value that is safe to share from the
+// users cache. passwordHash is whatever password_hash holds, a bcrypt hash or a legacy plaintext password.
+public record UserAccount(int userId, String username, String passwordHash) {
+}
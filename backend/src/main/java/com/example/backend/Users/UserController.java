@@ -4,6 +4,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.security.Principal;
 
 @RestController
@@ -18,31 +19,33 @@ public class UserController {
         this.userRepository = userRepository;
     }
 
+    // Login and register complete asynchronously on the password hashing pool, releasing the request thread meanwhile
+
     @PostMapping("/login")
-    public ResponseEntity<String> login(@RequestBody User loginUser) {
-        boolean isAuthenticated = userService.authenticateUser(loginUser.getUsername(), loginUser.getPassword());
-        if (isAuthenticated) {
-            return ResponseEntity.ok("Login Successful!");
-        } else {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Login Failed!");
-        }
+    public CompletableFuture<ResponseEntity<String>> login(@RequestBody User loginUser) {
+        return userService.authenticateUser(loginUser.getUsername(), loginUser.getPassword())
+                .thenApply(isAuthenticated -> {
+                    if (isAuthenticated) {
+                        return ResponseEntity.ok("Login Successful!");
+                    } else {
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Login Failed!");
+                    }
+                });
     }
 
     @PostMapping("/register")
-    public ResponseEntity<Map<String, String>> registerUser(@RequestBody User userRequest) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> registerUser(@RequestBody User userRequest) {
         if (userRequest.getUsername() == null || userRequest.getPassword() == null || userRequest.getEmail() == null) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("message", "Invalid request: All fields are required"));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Invalid request: All fields are required")));
         }
-        Optional<User> existingUser = userService.getUserByUsername(userRequest.getUsername());
-        if (existingUser.isPresent()) {
-            return ResponseEntity.status(HttpStatus.CONFLICT)
-                    .body(Map.of("message", "User already exists"));
+        if (userService.getAccount(userRequest.getUsername()).isPresent()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "User already exists")));
         }
-        userService.registerUser(userRequest);
-
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(Map.of("message", "User created successfully"));
+        return userService.registerUser(userRequest)
+                .thenApply(user -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(Map.of("message", "User created successfully")));
     }
 
     // New Endpoint to get a single user by username
@@ -58,8 +61,11 @@ public class UserController {
         }
     }
   
+    // One page of usernames; pass the last one back as after= for the next page
     @GetMapping("/users")
-    public List<String> getAllUsernames() {
-        return userRepository.findAllUsernames();
+    public List<String> getAllUsernames(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + UserService.DEFAULT_USERNAME_PAGE_SIZE) int size) {
+        return userService.getUsernames(after, size);
     }
 }
\ No newline at end of file
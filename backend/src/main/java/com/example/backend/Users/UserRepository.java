@@ -1,15 +1,80 @@
 package com.example.backend.Users;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, Integer> {
 
-   @Query("SELECT u.username FROM User u")
-    List<String> findAllUsernames();
+    // Keyset pages of usernames in order; the next page starts after the last username of the previous one
 
+    @Query("SELECT u.username FROM User u ORDER BY u.username")
+    List<String> findFirstUsernames(Limit limit);
+
+    @Query("SELECT u.username FROM User u WHERE u.username > :after ORDER BY u.username")
+    List<String> findUsernamesAfter(@Param("after") String after, Limit limit);
+
+    // Hit on every login and episode write; cached per username as an immutable UserAccount, so a caller can't
+    // change what the next one reads. Every write below evicts: by username where the argument carries one,
+    // otherwise the whole cache.
+    @Cacheable(cacheNames = "users", unless = "#result == null")
+    @Query("SELECT new com.example.backend.Users.UserAccount(u.userId, u.username, u.password) FROM User u WHERE u.username = :username")
+    UserAccount findAccountByUsername(@Param("username") String username);
+
+    // The full entity, uncached; for the profile endpoint and for changing the user
     User findByUsername(String username);
-}
\ No newline at end of file
+
+    @Override
+    @CacheEvict(cacheNames = "users", key = "#p0.username")
+    <S extends User> S save(S user);
+
+    @Override
+    @CacheEvict(cacheNames = "users", key = "#p0.username")
+    <S extends User> S saveAndFlush(S user);
+
+    @Override
+    @CacheEvict(cacheNames = "users", allEntries = true)
+    <S extends User> List<S> saveAll(Iterable<S> users);
+
+    @Override
+    @CacheEvict(cacheNames = "users", allEntries = true)
+    <S extends User> List<S> saveAllAndFlush(Iterable<S> users);
+
+    @Override
+    @CacheEvict(cacheNames = "users", key = "#p0.username")
+    void delete(User user);
+
+    @Override
+    @CacheEvict(cacheNames = "users", allEntries = true)
+    void deleteById(Integer userId);
+
+    @Override
+    @CacheEvict(cacheNames = "users", allEntries = true)
+    void deleteAllById(Iterable<? extends Integer> userIds);
+
+    @Override
+    @CacheEvict(cacheNames = "users", allEntries = true)
+    void deleteAll(Iterable<? extends User> users);
+
+    @Override
+    @CacheEvict(cacheNames = "users", allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = "users", allEntries = true)
+    void deleteAllInBatch(Iterable<User> users);
+
+    @Override
+    @CacheEvict(cacheNames = "users", allEntries = true)
+    void deleteAllByIdInBatch(Iterable<Integer> userIds);
+
+    @Override
+    @CacheEvict(cacheNames = "users", allEntries = true)
+    void deleteAllInBatch();
+}
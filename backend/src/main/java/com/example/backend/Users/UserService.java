@@ -1,28 +1,139 @@
 package com.example.backend.Users;
 
+import com.example.backend.Replica.ReadYourWrites;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
 @Service
 public class UserService {
 
+    public static final int DEFAULT_USERNAME_PAGE_SIZE = 500;
+    public static final int MAX_USERNAME_PAGE_SIZE = 1000;
+
+    // Anything else in password_hash is a plaintext password from before hashing was introduced
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
     @Autowired
     private UserRepository userRepository;
 
-    public User registerUser(User user) {
-        return userRepository.save(user);
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private ThreadPoolTaskExecutor passwordHashExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Checked against when there is no real hash to check, so a failed login costs one bcrypt either way
+    // and its timing doesn't tell whether the username exists
+    private String dummyHash;
+
+    @PostConstruct
+    void hashDummyPassword() {
+        dummyHash = passwordEncoder.encode("no such user");
+    }
+
+    // Hashes on the password pool, then saves
+    public CompletableFuture<User> registerUser(User user) {
+        String password = user.getPassword();
+        return CompletableFuture.supplyAsync(() -> {
+            user.setPassword(passwordEncoder.encode(password));
+            User saved = userRepository.save(user);
+            readYourWrites.recordWrite(saved.getUsername());
+            return saved;
+        }, passwordHashExecutor);
     }
 
     public Optional<User> getUserByUsername(String username) {
         return Optional.ofNullable(userRepository.findByUsername(username));
     }
 
-    public boolean authenticateUser(String username, String password) {
-        User user = userRepository.findByUsername(username);
-        if (user != null && user.getPassword().equals(password)) {
-            return true;
+    // Cached; enough for lookups by username that only need the id
+    public Optional<UserAccount> getAccount(String username) {
+        return Optional.ofNullable(userRepository.findAccountByUsername(username));
+    }
+
+    // Up to size usernames after the given one (from the start when null), in order
+    public List<String> getUsernames(String after, int size) {
+        Limit limit = Limit.of(Math.max(1, Math.min(size, MAX_USERNAME_PAGE_SIZE)));
+        if (after == null || after.isEmpty()) {
+            return userRepository.findFirstUsernames(limit);
+        }
+        return userRepository.findUsernamesAfter(after, limit);
+    }
+
+    public CompletableFuture<Boolean> authenticateUser(String username, String password) {
+        // Login follows right after registration, so read the account as its owner (see ReadYourWrites)
+        UserAccount account = readYourWrites.readAs(username, () -> userRepository.findAccountByUsername(username));
+        if (password == null) {
+            return CompletableFuture.completedFuture(false);
         }
-        return false;
+        if (account == null || account.passwordHash() == null) {
+            return rejectAfterHashing(password);
+        }
+        String stored = account.passwordHash();
+        if (!BCRYPT_HASH.matcher(stored).matches()) {
+            return upgradeLegacyPassword(account, password);
+        }
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.matches(password, stored), passwordHashExecutor);
+    }
+
+    // Accounts created before hashing still hold the plaintext password; hash it on their next successful login.
+    // The account passed in may come from the users cache, so the row is reloaded and rewritten in a transaction of
+    // its own, and the cached entry is evicted once that has committed.
+    private CompletableFuture<Boolean> upgradeLegacyPassword(UserAccount account, String password) {
+        if (!MessageDigest.isEqual(account.passwordHash().getBytes(StandardCharsets.UTF_8),
+                password.getBytes(StandardCharsets.UTF_8))) {
+            return rejectAfterHashing(password);
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return CompletableFuture.supplyAsync(() -> {
+            String hash = passwordEncoder.encode(password);
+            transaction.executeWithoutResult(status -> {
+                User user = userRepository.findByUsername(account.username());
+                // A concurrent login may have upgraded it already
+                if (user != null && password.equals(user.getPassword())) {
+                    user.setPassword(hash);
+                }
+            });
+            Cache users = cacheManager.getCache("users");
+            if (users != null) {
+                users.evict(account.username());
+            }
+            return true;
+        }, passwordHashExecutor);
+    }
+
+    private CompletableFuture<Boolean> rejectAfterHashing(String password) {
+        return CompletableFuture.supplyAsync(() -> {
+            passwordEncoder.matches(password, dummyHash);
+            return false;
+        }, passwordHashExecutor);
     }
 }
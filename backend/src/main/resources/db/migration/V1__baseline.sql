@@ -0,0 +1,70 @@
+-- Schema as it stood before Flyway: what ddl-auto=update built from the entities plus the hand-run scripts in
+-- db/migrations (001_pooled_id_sequences through 006_user_id_keys).
+--
+-- Only runs on an empty database. An existing database with 001-006 applied is baselined at this version
+-- (spring.flyway.baseline-on-migrate) and starts at V2; apply any of 001-006 it is missing by hand first.
+
+CREATE SEQUENCE episodes_seq INCREMENT BY 50;
+CREATE SEQUENCE medicine_daily_log_seq INCREMENT BY 50;
+
+CREATE TABLE users (
+    user_id       integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username      varchar(255),
+    password_hash varchar(255) NOT NULL,
+    email         varchar(255) NOT NULL,
+    created_at    timestamp(6) DEFAULT CURRENT_TIMESTAMP,
+    last_login    timestamp(6),
+    is_admin      boolean
+);
+
+CREATE TABLE episodes (
+    episode_id         integer PRIMARY KEY,
+    user_id            integer NOT NULL,
+    episode_date       date,
+    trigger_mask       bigint NOT NULL DEFAULT 0,
+    menstrual_period   boolean,
+    morning_severity   integer,
+    afternoon_severity integer,
+    evening_severity   integer,
+    notes              varchar(255),
+    CONSTRAINT uk_episodes_user_date UNIQUE (user_id, episode_date),
+    CONSTRAINT fk_episodes_user FOREIGN KEY (user_id) REFERENCES users (user_id)
+);
+
+CREATE INDEX idx_episodes_user_trigger_mask ON episodes (user_id, trigger_mask, episode_id);
+CREATE INDEX idx_episodes_severities ON episodes (morning_severity, afternoon_severity, evening_severity);
+
+CREATE TABLE medicine_daily_log (
+    medicince_log_id  bigint PRIMARY KEY,
+    episode_id        integer NOT NULL,
+    user_id           integer NOT NULL,
+    medicine_log_date timestamp(6),
+    medicine_name     varchar(255),
+    dose              varchar(255),
+    relief            integer,
+    time_taken        varchar(255),
+    notes             varchar(255),
+    created_at        timestamp(6),
+    updated_at        timestamp(6),
+    CONSTRAINT fk_medicine_daily_log_episode FOREIGN KEY (episode_id) REFERENCES episodes (episode_id),
+    CONSTRAINT fk_medicine_daily_log_user FOREIGN KEY (user_id) REFERENCES users (user_id)
+);
+
+CREATE INDEX idx_medicine_daily_log_episode ON medicine_daily_log (episode_id);
+CREATE INDEX idx_medicine_daily_log_name_relief ON medicine_daily_log (medicine_name, relief);
+
+CREATE TABLE monthly_summaries (
+    summary_id             bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username               varchar(255) NOT NULL,
+    summary_year           integer NOT NULL,
+    summary_month          integer NOT NULL,
+    revision               bigint NOT NULL DEFAULT 0,
+    episode_count          integer,
+    menstrual_days         integer,
+    morning_severity_sum   bigint,
+    afternoon_severity_sum bigint,
+    evening_severity_sum   bigint,
+    menstrual_severity_sum bigint,
+    trigger_counts         integer[],
+    CONSTRAINT uk_monthly_summaries_user_month UNIQUE (username, summary_year, summary_month)
+);
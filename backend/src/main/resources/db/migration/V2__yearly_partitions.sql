@@ -0,0 +1,149 @@
+-- episodes and medicine_daily_log become range-partitioned by episode_date, one partition per calendar year
+-- (episodes_2024, medicine_daily_log_2024, ...). Per-user date-range queries prune to the partitions their
+-- range covers, and retiring a year is detach_year_partitions() plus a DROP instead of a mass DELETE.
+--
+-- medicine_daily_log is partitioned by a copy of its episode's date rather than by medicine_log_date: that is
+-- when the log was written, which for imported history can be years after the episode. Keyed the same way, a
+-- year of logs sits next to its year of episodes and references it through (episode_id, episode_date).
+--
+-- Requires PostgreSQL 15 or later, which runs ON UPDATE CASCADE correctly when moving an episode to another
+-- year moves its row to another partition. Flyway runs this in one transaction; it copies both tables, so
+-- expect downtime proportional to their size.
+--
+-- New years are created by YearPartitions through ensure_year_partitions(), ahead of time and on demand.
+
+-- YearPartitions calls it in its own short transaction before a write starts, so a backdated import commits its
+-- year before the transaction that inserts its first row; the CREATE TABLE locks never outlive that call.
+-- Returns the number of tables created; concurrent callers for the same year are fine.
+CREATE FUNCTION ensure_year_partitions(first_year integer, last_year integer) RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+    created integer := 0;
+    parent text;
+BEGIN
+    FOR partition_year IN first_year..last_year LOOP
+        FOREACH parent IN ARRAY ARRAY['episodes', 'medicine_daily_log'] LOOP
+            IF to_regclass(parent || '_' || partition_year) IS NULL THEN
+                BEGIN
+                    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                                   parent || '_' || partition_year, parent,
+                                   make_date(partition_year, 1, 1), make_date(partition_year + 1, 1, 1));
+                    created := created + 1;
+                EXCEPTION WHEN duplicate_table THEN
+                    -- Another session created it between the check and the CREATE
+                    NULL;
+                END;
+            END IF;
+        END LOOP;
+    END LOOP;
+    RETURN created;
+END $$;
+
+-- Takes one year out of both tables as a catalog change; its rows are not touched. The detached tables stay
+-- behind as ordinary tables to archive and drop:
+--   SELECT detach_year_partitions(2015);
+--   pg_dump -t episodes_2015 -t medicine_daily_log_2015 ... > diary_2015.sql
+--   DROP TABLE medicine_daily_log_2015, episodes_2015;
+-- Monthly summaries for the year are kept; delete them separately if they should go too.
+CREATE FUNCTION detach_year_partitions(partition_year integer) RETURNS void
+LANGUAGE plpgsql AS $$
+DECLARE
+    logs_partition text := 'medicine_daily_log_' || partition_year;
+    episodes_partition text := 'episodes_' || partition_year;
+    fk record;
+BEGIN
+    EXECUTE format('ALTER TABLE medicine_daily_log DETACH PARTITION %I', logs_partition);
+    -- Detached logs keep their foreign key to episodes, which would block detaching the year's episodes
+    FOR fk IN SELECT conname FROM pg_constraint
+              WHERE conrelid = logs_partition::regclass AND contype = 'f' AND confrelid = 'episodes'::regclass LOOP
+        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', logs_partition, fk.conname);
+    END LOOP;
+    EXECUTE format('ALTER TABLE episodes DETACH PARTITION %I', episodes_partition);
+END $$;
+
+-- The partition key can't be null; every write since saveEpisode defaulted the date has one
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM episodes WHERE episode_date IS NULL) THEN
+        RAISE EXCEPTION 'episodes without an episode_date can''t be partitioned; date or delete them first';
+    END IF;
+END $$;
+
+ALTER TABLE medicine_daily_log RENAME TO medicine_daily_log_unpartitioned;
+ALTER TABLE episodes RENAME TO episodes_unpartitioned;
+
+-- Primary keys must include the partition key; ids still come from episodes_seq / medicine_daily_log_seq
+CREATE TABLE episodes (
+    episode_id         integer NOT NULL,
+    user_id            integer NOT NULL,
+    episode_date       date NOT NULL,
+    trigger_mask       bigint NOT NULL DEFAULT 0,
+    menstrual_period   boolean,
+    morning_severity   integer,
+    afternoon_severity integer,
+    evening_severity   integer,
+    notes              varchar(255),
+    CONSTRAINT pk_episodes PRIMARY KEY (episode_id, episode_date)
+) PARTITION BY RANGE (episode_date);
+
+CREATE TABLE medicine_daily_log (
+    medicince_log_id  bigint NOT NULL,
+    episode_id        integer NOT NULL,
+    episode_date      date NOT NULL,
+    user_id           integer NOT NULL,
+    medicine_log_date timestamp(6),
+    medicine_name     varchar(255),
+    dose              varchar(255),
+    relief            integer,
+    time_taken        varchar(255),
+    notes             varchar(255),
+    created_at        timestamp(6),
+    updated_at        timestamp(6),
+    CONSTRAINT pk_medicine_daily_log PRIMARY KEY (medicince_log_id, episode_date)
+) PARTITION BY RANGE (episode_date);
+
+-- Every year with data, through next year
+DO $$
+DECLARE
+    this_year integer := extract(year FROM current_date);
+BEGIN
+    PERFORM ensure_year_partitions(
+        LEAST(this_year, (SELECT extract(year FROM min(episode_date))::integer FROM episodes_unpartitioned)),
+        GREATEST(this_year + 1, (SELECT extract(year FROM max(episode_date))::integer FROM episodes_unpartitioned)));
+END $$;
+
+INSERT INTO episodes (episode_id, user_id, episode_date, trigger_mask, menstrual_period,
+                      morning_severity, afternoon_severity, evening_severity, notes)
+SELECT episode_id, user_id, episode_date, trigger_mask, menstrual_period,
+       morning_severity, afternoon_severity, evening_severity, notes
+FROM episodes_unpartitioned;
+
+INSERT INTO medicine_daily_log (medicince_log_id, episode_id, episode_date, user_id, medicine_log_date, medicine_name,
+                                dose, relief, time_taken, notes, created_at, updated_at)
+SELECT m.medicince_log_id, m.episode_id, e.episode_date, m.user_id, m.medicine_log_date, m.medicine_name,
+       m.dose, m.relief, m.time_taken, m.notes, m.created_at, m.updated_at
+FROM medicine_daily_log_unpartitioned m
+JOIN episodes_unpartitioned e ON e.episode_id = m.episode_id;
+
+DROP TABLE medicine_daily_log_unpartitioned;
+DROP TABLE episodes_unpartitioned;
+
+-- Declared on the parents after the copy, so each partition's indexes are built once over its data.
+-- Index and constraint names match Episode's and MedicineDailyLog's @Table annotations.
+ALTER TABLE episodes ADD CONSTRAINT uk_episodes_user_date UNIQUE (user_id, episode_date);
+CREATE INDEX idx_episodes_user_trigger_mask ON episodes (user_id, trigger_mask, episode_id);
+CREATE INDEX idx_episodes_severities ON episodes (morning_severity, afternoon_severity, evening_severity);
+CREATE INDEX idx_medicine_daily_log_episode ON medicine_daily_log (episode_id);
+CREATE INDEX idx_medicine_daily_log_name_relief ON medicine_daily_log (medicine_name, relief);
+
+ALTER TABLE episodes ADD CONSTRAINT fk_episodes_user FOREIGN KEY (user_id) REFERENCES users (user_id);
+ALTER TABLE medicine_daily_log ADD CONSTRAINT fk_medicine_daily_log_user FOREIGN KEY (user_id) REFERENCES users (user_id);
+-- Deferred because Hibernate may flush a moved episode's logs before the episode itself; the cascade
+-- moves the logs along when the episode goes first
+ALTER TABLE medicine_daily_log ADD CONSTRAINT fk_medicine_daily_log_episode
+    FOREIGN KEY (episode_id, episode_date) REFERENCES episodes (episode_id, episode_date)
+    ON UPDATE CASCADE DEFERRABLE INITIALLY DEFERRED;
+
+-- Autovacuum analyzes the partitions but never the partitioned parents
+ANALYZE episodes;
+ANALYZE medicine_daily_log;
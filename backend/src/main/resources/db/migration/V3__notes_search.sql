@@ -0,0 +1,21 @@
+-- Full-text indexes for PostgresNoteSearch: one GIN index per table over (user_id, notes as an English tsvector),
+-- so a search looks up one user's postings for the query terms instead of reading their whole history.
+-- btree_gin lets the integer user_id sit in the same GIN index; it is a trusted extension, so the database
+-- owner can create it without superuser rights.
+--
+-- Expression indexes rather than stored tsvector columns, so neither table is rewritten. The queries must use
+-- the same expression, to_tsvector('english', notes), and the same predicate, notes <> '', to match them.
+-- Episodes without notes (most of them) are left out of the indexes entirely.
+--
+-- Declared on the partitioned parents: every yearly partition gets its own index, including the ones
+-- ensure_year_partitions() creates later. Building them blocks writes to each partition while it runs.
+
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX idx_episodes_notes_search ON episodes
+    USING gin (user_id, to_tsvector('english', notes))
+    WHERE notes <> '';
+
+CREATE INDEX idx_medicine_daily_log_notes_search ON medicine_daily_log
+    USING gin (user_id, to_tsvector('english', notes))
+    WHERE notes <> '';
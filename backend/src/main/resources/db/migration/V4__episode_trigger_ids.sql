@@ -0,0 +1,21 @@
+-- Indexable trigger lookups for EpisodeRepository.findIdsByUserIdAndTrigger. A bit test on trigger_mask is not
+-- something a btree can seek on, so through idx_episodes_user_trigger_mask the query read every index entry of
+-- the user. trigger_mask stays the only stored form of an episode's triggers; episode_trigger_ids expands it
+-- into the ascending integer[] of its ids (TriggerMask.ids), and a GIN expression index over
+-- (user_id, episode_trigger_ids(trigger_mask)) lets the query ask episode_trigger_ids(trigger_mask) @> ARRAY[id],
+-- which looks up the postings of that one trigger for that one user. btree_gin comes from V3.
+--
+-- idx_episodes_user_trigger_mask stays: it covers the group key of
+-- PopulationAnalyticsRepository.countByTriggerMask.
+--
+-- On the partitioned parent, so every yearly partition, existing and future, gets the index.
+
+CREATE FUNCTION episode_trigger_ids(mask bigint) RETURNS integer[]
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE
+AS $$
+    SELECT COALESCE(array_agg(id ORDER BY id), '{}')
+    FROM generate_series(1, 64) AS id
+    WHERE mask & (1::bigint << (id - 1)) <> 0
+$$;
+
+CREATE INDEX idx_episodes_user_trigger_ids ON episodes USING gin (user_id, episode_trigger_ids(trigger_mask));
@@ -0,0 +1,181 @@
+package com.example.backend.Analytics;
+
+import static com.example.backend.Episode.EpisodeFixtures.episode;
+import static com.example.backend.Episode.EpisodeFixtures.medicine;
+import static com.example.backend.Episode.EpisodeFixtures.withMedicine;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.example.backend.Episode.EpisodeRepository;
+import com.example.backend.Episode.EpisodeService;
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+class AnalyticsServiceTests {
+
+	@Autowired
+	private AnalyticsService analyticsService;
+
+	@Autowired
+	private PopulationReportService populationReportService;
+
+	@Autowired
+	private EpisodeService episodeService;
+
+	@Autowired
+	private EpisodeRepository episodeRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@MockitoSpyBean
+	private EpisodeAnalyticsRepository episodeAnalyticsRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		episodeRepository.deleteAll();
+		userRepository.deleteAll();
+		cacheManager.getCache(AnalyticsService.CACHE_NAME).clear();
+		cacheManager.getCache(PopulationReportService.CACHE_NAME).clear();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+
+		episodeService.saveEpisode(withMedicine(episode("alice", LocalDate.of(2024, 1, 1), true, 1, 2, 3, 5),
+				medicine("ibuprofen", 1), medicine("sumatriptan", 3)));
+		episodeService.saveEpisode(withMedicine(episode("alice", LocalDate.of(2024, 1, 2), false, 0, 0, 3, 10),
+				medicine("sumatriptan", 2)));
+		episodeService.saveEpisode(withMedicine(episode("alice", LocalDate.of(2024, 1, 3), false, 0, 0, 0, 5),
+				medicine("ibuprofen", null)));
+		episodeService.saveEpisode(episode("alice", LocalDate.of(2024, 1, 5), false, 1, 0, 1));
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void wholeHistoryIsAnalyzedInOneStreamingQuery() {
+		UserAnalytics analytics = analyticsService.getUserAnalytics("alice");
+
+		assertThat(analytics.episodes()).isEqualTo(4);
+		assertThat(analytics.firstDate()).isEqualTo(LocalDate.of(2024, 1, 1));
+		assertThat(analytics.lastDate()).isEqualTo(LocalDate.of(2024, 1, 5));
+		assertThat(analytics.severeEveningRate()).isCloseTo(0.5, within(1e-9));
+
+		// Trigger 5 on Jan 1 (severe evening, followed by a severe Jan 2) and Jan 3 (Jan 4 not logged)
+		assertThat(analytics.triggers()).containsExactly(
+				new UserAnalytics.TriggerCorrelation(5, 2, 0.5, 1, 1.0),
+				new UserAnalytics.TriggerCorrelation(10, 1, 1.0, 1, 0.0));
+
+		assertThat(analytics.medicines()).containsExactly(
+				new UserAnalytics.MedicineRelief("sumatriptan", 2, 2, 2.5),
+				new UserAnalytics.MedicineRelief("ibuprofen", 2, 1, 1.0));
+
+		UserAnalytics.MenstrualCorrelation menstrual = analytics.menstrual();
+		assertThat(menstrual.menstrualDays()).isEqualTo(1);
+		assertThat(menstrual.menstrualAverageDailySeverity()).isCloseTo(6.0, within(1e-9));
+		assertThat(menstrual.menstrualSevereEveningRate()).isCloseTo(1.0, within(1e-9));
+		assertThat(menstrual.otherDays()).isEqualTo(3);
+		assertThat(menstrual.otherAverageDailySeverity()).isCloseTo(5.0 / 3, within(1e-9));
+		assertThat(menstrual.otherSevereEveningRate()).isCloseTo(1.0 / 3, within(1e-9));
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void analyticsAreCachedUntilTheNextSave() {
+		analyticsService.getUserAnalytics("alice");
+		statistics.clear();
+
+		assertThat(analyticsService.getUserAnalytics("alice").episodes()).isEqualTo(4);
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+
+		episodeService.saveEpisode(episode("alice", LocalDate.of(2024, 1, 6), false, 0, 0, 3));
+
+		assertThat(analyticsService.getUserAnalytics("alice").episodes()).isEqualTo(5);
+	}
+
+	@Test
+	void writeDuringAnalysisKeepsTheResultOutOfTheCache() {
+		// A save commits (and evicts) while the history is being read, before the result is stored
+		doAnswer(invocation -> {
+			analyticsService.invalidate("alice");
+			return Stream.empty();
+		}).when(episodeAnalyticsRepository).streamLogRows(anyInt());
+
+		analyticsService.getUserAnalytics("alice");
+
+		assertThat(cacheManager.getCache(AnalyticsService.CACHE_NAME).get("alice")).isNull();
+	}
+
+	@Test
+	void allUsersViewCoversEveryUser() {
+		userRepository.save(new User("bob", "secret", "bob@example.com", false));
+		episodeService.saveEpisode(episode("bob", LocalDate.of(2024, 2, 1), false, 3, 3, 3, 1));
+
+		List<UserAnalytics> all = analyticsService.getAllUserAnalytics(null, 10);
+
+		assertThat(all).extracting(UserAnalytics::username).containsExactly("alice", "bob");
+		assertThat(all).filteredOn(analytics -> analytics.username().equals("bob"))
+				.singleElement()
+				.extracting(UserAnalytics::severeEveningRate)
+				.isEqualTo(1.0);
+
+		assertThat(analyticsService.getAllUserAnalytics("alice", 10)).extracting(UserAnalytics::username).containsExactly("bob");
+	}
+
+	@Test
+	void populationReportsAreGroupedQueriesAcrossUsers() {
+		userRepository.save(new User("bob", "secret", "bob@example.com", false));
+		episodeService.saveEpisode(withMedicine(episode("bob", LocalDate.of(2024, 2, 1), false, 3, 3, 3, 5, 7),
+				medicine("sumatriptan", 0)));
+		statistics.clear();
+
+		PopulationReport.SeverityDistribution severity = populationReportService.getSeverityDistribution();
+		assertThat(severity.episodes()).isEqualTo(5);
+		assertThat(severity.evening()).containsExactly(entry(0, 1L), entry(1, 1L), entry(3, 3L));
+		assertThat(severity.morning()).containsExactly(entry(0, 2L), entry(1, 2L), entry(3, 1L));
+
+		assertThat(populationReportService.getTopTriggers(2)).containsExactly(
+				new PopulationReport.TriggerUsage(5, 3, 0.6),
+				new PopulationReport.TriggerUsage(7, 1, 0.2));
+
+		assertThat(populationReportService.getTopMedicines(10)).containsExactly(
+				new MedicineUsage("sumatriptan", 3, 3, 5.0 / 3),
+				new MedicineUsage("ibuprofen", 2, 1, 1.0));
+
+		// One grouped query per report, then served from the cache
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		populationReportService.getTopTriggers(10);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+	}
+
+
+}
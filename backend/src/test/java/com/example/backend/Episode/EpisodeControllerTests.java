@@ -0,0 +1,346 @@
+package com.example.backend.Episode;
+
+import static com.example.backend.Episode.EpisodeFixtures.medicine;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserRepository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EpisodeControllerTests {
+
+	private static final int EPISODES = 20;
+	private static final int LOGS_PER_EPISODE = 3;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EpisodeService episodeService;
+
+	@Autowired
+	private EpisodeRepository episodeRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		episodeRepository.deleteAll();
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+
+		LocalDate first = LocalDate.of(2024, 3, 1);
+		for (int day = 0; day < EPISODES; day++) {
+			episodeService.saveEpisode(episode("alice", first.plusDays(day)));
+		}
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void monthRequestLoadsEpisodesAndMedicineLogsInOneStatement() throws Exception {
+		mockMvc.perform(get("/episodes/user/alice/month/2024/3"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(EPISODES))
+				.andExpect(jsonPath("$[0].medicineLogs.length()").value(LOGS_PER_EPISODE));
+
+		// One for the month's version tag, one for the episodes with their medicine logs
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		// Served from EpisodeView projections, so nothing was hydrated
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(statistics.getCollectionLoadCount()).isZero();
+	}
+
+	@Test
+	void episodeViewsSerializeLikeEntities() throws Exception {
+		Episode withoutLogs = episode("alice", LocalDate.of(2024, 3, 25));
+		withoutLogs.setMedicineLogs(new ArrayList<>());
+		withoutLogs.setNotes("no medicine today");
+		episodeService.saveEpisode(withoutLogs);
+
+		String entities = objectMapper.writeValueAsString(episodeService.getUserEpisodesByMonth("alice", 2024, 3));
+		String views = objectMapper.writeValueAsString(
+				episodeService.getEpisodeViewsBetween("alice", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1)));
+
+		assertThat(views).isEqualTo(entities);
+		assertThat(objectMapper.writeValueAsString(episodeService.getEpisodeViewsPerUser("alice"))).isEqualTo(entities);
+	}
+
+	@Test
+	void unchangedMonthAnswersNotModifiedWithoutLoadingEpisodes() throws Exception {
+		String eTag = mockMvc.perform(get("/episodes/user/alice/month/2024/3"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists("ETag"))
+				.andReturn().getResponse().getHeader("ETag");
+		statistics.clear();
+
+		mockMvc.perform(get("/episodes/user/alice/month/2024/3").header("If-None-Match", eTag))
+				.andExpect(status().isNotModified());
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void unchangedMonthIsServedFromResponseCache() throws Exception {
+		mockMvc.perform(get("/episodes/user/alice/month/2024/3")).andExpect(status().isOk());
+		statistics.clear();
+
+		mockMvc.perform(get("/episodes/user/alice/month/2024/3"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(EPISODES));
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void writingToTheMonthChangesItsETag() throws Exception {
+		String before = mockMvc.perform(get("/episodes/user/alice/month/2024/3"))
+				.andReturn().getResponse().getHeader("ETag");
+
+		episodeService.saveEpisode(episode("alice", LocalDate.of(2024, 3, 28)));
+
+		mockMvc.perform(get("/episodes/user/alice/month/2024/3").header("If-None-Match", before))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", not(before)))
+				.andExpect(jsonPath("$.length()").value(EPISODES + 1));
+	}
+
+	@Test
+	void cborMonthIsColumnarAndSmallerThanJson() throws Exception {
+		byte[] json = mockMvc.perform(get("/episodes/user/alice/month/2024/3"))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		MvcResult result = mockMvc.perform(get("/episodes/user/alice/month/2024/3").accept("application/cbor"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/cbor"))
+				.andExpect(header().stringValues("Vary", hasItem("Accept")))
+				.andReturn();
+		byte[] cbor = result.getResponse().getContentAsByteArray();
+
+		MonthColumns columns = new CBORMapper().readValue(cbor, MonthColumns.class);
+		assertThat(columns.days()).hasSize(EPISODES).startsWith(1, 2, 3);
+		assertThat(columns.severities()).hasSize(EPISODES * 3).startsWith((byte) 3, (byte) 0, (byte) 0);
+		assertThat(columns.triggers()).containsOnly((1L << 4) | (1L << 9));
+		assertThat(columns.medicines()).containsExactly("medicine-0", "medicine-1", "medicine-2");
+		assertThat(columns.logEpisodes()).hasSize(EPISODES * LOGS_PER_EPISODE);
+		assertThat(columns.logMedicines()).startsWith(0, 1, 2, 0, 1, 2);
+		assertThat(columns.logRelief()).containsOnly(2);
+		assertThat(cbor.length).isLessThan(json.length / 3);
+	}
+
+	@Test
+	void eachFormatHasItsOwnETag() throws Exception {
+		String jsonTag = mockMvc.perform(get("/episodes/user/alice/month/2024/3"))
+				.andReturn().getResponse().getHeader("ETag");
+		String cborTag = mockMvc.perform(get("/episodes/user/alice/month/2024/3").accept("application/cbor"))
+				.andReturn().getResponse().getHeader("ETag");
+		assertThat(cborTag).isNotEqualTo(jsonTag);
+
+		mockMvc.perform(get("/episodes/user/alice/month/2024/3").accept("application/cbor").header("If-None-Match", cborTag))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get("/episodes/user/alice/month/2024/3").header("If-None-Match", cborTag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(EPISODES));
+	}
+
+	@Test
+	void yearHeatmapPacksOneBytePerDayInOneStatement() throws Exception {
+		Episode lastDay = episode("alice", LocalDate.of(2024, 12, 31));
+		lastDay.setMorningSeverity(1);
+		lastDay.setAfternoonSeverity(2);
+		lastDay.setEveningSeverity(3);
+		lastDay.setMenstrualPeriod(true);
+		episodeService.saveEpisode(lastDay);
+		statistics.clear();
+
+		byte[] body = mockMvc.perform(get("/episodes/user/alice/year/2024/heatmap"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.year").value(2024))
+				.andReturn().getResponse().getContentAsByteArray();
+		byte[] days = objectMapper.readValue(body, YearHeatmap.class).days();
+
+		assertThat(days).hasSize(366);
+		// March 1st onwards: morning severity 3, logged
+		assertThat(days[LocalDate.of(2024, 3, 1).getDayOfYear() - 1]).isEqualTo((byte) 0x83);
+		assertThat(days[LocalDate.of(2024, 3, 20).getDayOfYear() - 1]).isEqualTo((byte) 0x83);
+		assertThat(days[LocalDate.of(2024, 3, 21).getDayOfYear() - 1]).isZero();
+		assertThat(days[365]).isEqualTo((byte) (0x80 | 0x40 | 3 << 4 | 2 << 2 | 1));
+		assertThat(body.length).isLessThan(1024);
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void historyRequestLoadsEpisodesAndMedicineLogsInOneStatement() throws Exception {
+		mockMvc.perform(get("/episodes/user/alice"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(EPISODES))
+				.andExpect(jsonPath("$[19].medicineLogs.length()").value(LOGS_PER_EPISODE));
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void dateRequestLoadsEpisodeAndMedicineLogsInOneStatement() throws Exception {
+		mockMvc.perform(get("/episodes/user/alice/date/2024-03-05"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.medicineLogs.length()").value(LOGS_PER_EPISODE));
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void triggerRequestLoadsOnlyMatchingEpisodes() throws Exception {
+		Episode other = episode("alice", LocalDate.of(2024, 4, 1));
+		other.setTriggerIds(new int[] { 32 });
+		episodeService.saveEpisode(other);
+		statistics.clear();
+
+		mockMvc.perform(get("/episodes/user/alice/trigger/32"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(jsonPath("$[0].episodeDate").value("2024-04-01"))
+				.andExpect(jsonPath("$[0].triggerIds[0]").value(32))
+				.andExpect(jsonPath("$[0].medicineLogs.length()").value(LOGS_PER_EPISODE));
+
+		// The matching ids, then those episodes with their medicine logs
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(statistics.getEntityLoadCount()).isEqualTo(1 + LOGS_PER_EPISODE);
+
+		mockMvc.perform(get("/episodes/user/alice/trigger/10"))
+				.andExpect(jsonPath("$.length()").value(EPISODES));
+	}
+
+	@Test
+	void triggerOutsideTheMaskIsBadRequest() throws Exception {
+		mockMvc.perform(get("/episodes/user/alice/trigger/65"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void heatmapOfAYearOutsideTheCalendarIsBadRequest() throws Exception {
+		mockMvc.perform(get("/episodes/user/alice/year/0/heatmap"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Year must be between 1 and 9999"));
+		mockMvc.perform(get("/episodes/user/alice/year/1000000000/heatmap"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void postingATriggerOutsideTheMaskIsBadRequest() throws Exception {
+		mockMvc.perform(post("/episodes/log")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+						{"username": "alice", "episodeDate": "2024-04-02", "triggerIds": [3, 65]}
+						"""))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Trigger ids must be between 1 and 64: [65]"));
+	}
+
+	@Test
+	void pagesWalkTheWholeHistoryInOrder() throws Exception {
+		List<String> dates = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			String url = "/episodes/user/alice/page?size=7" + (cursor != null ? "&cursor=" + cursor : "");
+			String body = mockMvc.perform(get(url))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+			JsonNode page = objectMapper.readTree(body);
+			page.get("episodes").forEach(episode -> {
+				dates.add(episode.get("episodeDate").asText());
+				assertThat(episode.get("medicineLogs").size()).isEqualTo(LOGS_PER_EPISODE);
+			});
+			cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+			pages++;
+		} while (cursor != null);
+
+		assertThat(pages).isEqualTo(3);
+		assertThat(dates).hasSize(EPISODES).isSorted().doesNotHaveDuplicates();
+	}
+
+	@Test
+	void pageSizeOutsideTheLimitIsBadRequest() throws Exception {
+		mockMvc.perform(get("/episodes/user/alice/page?size=0"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/episodes/user/alice/page?size=" + (EpisodeService.MAX_PAGE_SIZE + 1)))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Page size must be between 1 and " + EpisodeService.MAX_PAGE_SIZE));
+	}
+
+	@Test
+	void invalidCursorIsBadRequest() throws Exception {
+		mockMvc.perform(get("/episodes/user/alice/page?cursor=not-a-cursor"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void streamWritesOneJsonLinePerEpisode() throws Exception {
+		MvcResult result = mockMvc.perform(get("/episodes/user/alice/stream"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String body = mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/x-ndjson"))
+				.andReturn().getResponse().getContentAsString();
+
+		String[] lines = body.split("\n");
+		assertThat(lines).hasSize(EPISODES);
+		assertThat(objectMapper.readTree(lines[0]).get("episodeDate").asText()).isEqualTo("2024-03-01");
+		assertThat(objectMapper.readTree(lines[EPISODES - 1]).get("medicineLogs").size()).isEqualTo(LOGS_PER_EPISODE);
+	}
+
+	private static Episode episode(String username, LocalDate date) {
+		Episode episode = EpisodeFixtures.episode(username, date, false, 3, 0, 0, 5, 10);
+		for (int i = 0; i < LOGS_PER_EPISODE; i++) {
+			episode.getMedicineLogs().add(medicine("medicine-" + i, 2));
+		}
+		return episode;
+	}
+}
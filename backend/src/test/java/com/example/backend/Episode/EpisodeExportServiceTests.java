@@ -0,0 +1,213 @@
+package com.example.backend.Episode;
+
+import static com.example.backend.Episode.EpisodeFixtures.episode;
+import static com.example.backend.Episode.EpisodeFixtures.medicine;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.backend.MedicineDailyLog.MedicineDailyLog;
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserRepository;
+
+// Own database: the 100k-episode export would otherwise leave other suites with a huge table
+@SpringBootTest(properties =
+		"spring.datasource.url=jdbc:h2:mem:episode_export;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class EpisodeExportServiceTests {
+
+	private static final int LARGE_DIARY = 100_000;
+
+	@Autowired
+	private EpisodeExportService episodeExportService;
+
+	@Autowired
+	private EpisodeService episodeService;
+
+	@Autowired
+	private EpisodeRepository episodeRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM medicine_daily_log");
+		episodeRepository.deleteAll();
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+	}
+
+	@Test
+	void gzippedExportReadsBackThroughTheCsvImporter() throws Exception {
+		Episode first = episode("alice", LocalDate.of(2024, 3, 1), 3, medicine("ibuprofen", 2), medicine("sumatriptan", null));
+		first.setNotes("aura, then \"the usual\"\nlasted all day");
+		first.setTriggerIds(new int[] { 3, 17 });
+		episodeService.saveEpisode(first);
+		episodeService.saveEpisode(episode("alice", LocalDate.of(2024, 3, 2), 3));
+
+		MvcResult result = mockMvc.perform(get("/episodes/user/alice/export").header("Accept-Encoding", "gzip, deflate"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		byte[] body = mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Encoding", "gzip"))
+				.andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		EpisodeCsvReader reader = new EpisodeCsvReader(new InputStreamReader(
+				new GZIPInputStream(new ByteArrayInputStream(body)), StandardCharsets.UTF_8));
+		List<Episode> episodes = new ArrayList<>();
+		for (EpisodeCsvReader.Row row = reader.next(); row != null; row = reader.next()) {
+			assertThat(row.error()).isNull();
+			episodes.add(row.episode());
+		}
+
+		assertThat(episodes).hasSize(2);
+		Episode exported = episodes.get(0);
+		assertThat(exported.getEpisodeDate()).isEqualTo(LocalDate.of(2024, 3, 1));
+		assertThat(exported.getNotes()).isEqualTo("aura, then \"the usual\"\nlasted all day");
+		assertThat(exported.getTriggerIds()).containsExactly(3, 17);
+		assertThat(exported.getEveningSeverity()).isEqualTo(3);
+		assertThat(exported.getMedicineLogs()).extracting(MedicineDailyLog::getMedicineName)
+				.containsExactly("ibuprofen", "sumatriptan");
+		assertThat(exported.getMedicineLogs()).extracting(MedicineDailyLog::getRelief).containsExactly(2, null);
+		assertThat(episodes.get(1).getMedicineLogs()).isEmpty();
+	}
+
+	@Test
+	void formulaLikeTextIsExportedAsTextAndImportedUnchanged() throws Exception {
+		Episode formulas = episode("alice", LocalDate.of(2024, 3, 1), 3, medicine("@SUM(A1)", 1), medicine("'-not a formula", 2));
+		formulas.setNotes("=HYPERLINK(\"http://example.com\")");
+		episodeService.saveEpisode(formulas);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		episodeExportService.exportCsv("alice", out);
+		String csv = out.toString(StandardCharsets.UTF_8);
+
+		assertThat(csv).contains(",\"'=HYPERLINK(\"\"http://example.com\"\")\",", ",'@SUM(A1),", ",''-not a formula,");
+		Episode imported = new EpisodeCsvReader(new StringReader(csv)).next().episode();
+		assertThat(imported.getNotes()).isEqualTo("=HYPERLINK(\"http://example.com\")");
+		assertThat(imported.getMedicineLogs()).extracting(MedicineDailyLog::getMedicineName)
+				.containsExactly("@SUM(A1)", "'-not a formula");
+	}
+
+	@Test
+	void exportIsNotGzippedWhenTheClientRefusesGzip() throws Exception {
+		episodeService.saveEpisode(episode("alice", LocalDate.of(2024, 3, 1), 3));
+
+		MvcResult result = mockMvc.perform(get("/episodes/user/alice/export").header("Accept-Encoding", "gzip;q=0, identity"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String body = mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist("Content-Encoding"))
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+		assertThat(body).startsWith(EpisodeCsvWriter.HEADER);
+		assertThat(EpisodeController.acceptsGzip("deflate, *;q=0.5")).isTrue();
+		assertThat(EpisodeController.acceptsGzip("*, gzip;q=0")).isFalse();
+		assertThat(EpisodeController.acceptsGzip("GZIP; Q=0.000")).isFalse();
+	}
+
+	@Test
+	void largeExportStreamsInConstantMemory() throws Exception {
+		// ~270 years of daily entries, two medicine logs each, inserted in bulk
+		int alice = userRepository.findByUsername("alice").getUserId();
+		jdbcTemplate.update("""
+				INSERT INTO episodes (episode_id, user_id, episode_date, trigger_mask, menstrual_period,
+				                      morning_severity, afternoon_severity, evening_severity, notes)
+				SELECT x, ?, DATE '1800-01-01' + CAST(x AS INT), MOD(x, 1024), MOD(x, 7) = 0,
+				       MOD(x, 4), MOD(x / 4, 4), MOD(x / 16, 4), REPEAT('n', 200)
+				FROM SYSTEM_RANGE(1, ?) AS r (x)
+				""", alice, LARGE_DIARY);
+		jdbcTemplate.update("""
+				INSERT INTO medicine_daily_log (medicince_log_id, episode_id, episode_date, user_id, medicine_name, dose, relief, time_taken)
+				SELECT x, MOD(x - 1, ?) + 1, DATE '1800-01-01' + CAST(MOD(x - 1, ?) + 1 AS INT), ?, CASE WHEN x > ? THEN 'naproxen' ELSE 'ibuprofen' END, '200mg', MOD(x, 4), '08:00'
+				FROM SYSTEM_RANGE(1, ?) AS r (x)
+				""", LARGE_DIARY, LARGE_DIARY, alice, LARGE_DIARY, 2 * LARGE_DIARY);
+
+		HeapSamplingOutputStream out = new HeapSamplingOutputStream();
+		episodeExportService.exportCsv("alice", out);
+
+		// Header plus one row per medicine log
+		assertThat(out.lines).isEqualTo(1 + 2 * LARGE_DIARY);
+		assertThat(out.bytes).isGreaterThan(48L * 1024 * 1024);
+		// Holding the export, or the episodes behind it, would take several times this
+		assertThat(out.peakGrowth()).isLessThan(24L * 1024 * 1024);
+	}
+
+	// Discards the export, sampling live heap after a GC every few MB written
+	private static final class HeapSamplingOutputStream extends OutputStream {
+
+		private static final long SAMPLE_EVERY = 8L * 1024 * 1024;
+
+		private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		private final long baseline = liveHeap();
+		private long peak = baseline;
+		private long bytes;
+		private long lines;
+		private long nextSample = SAMPLE_EVERY;
+
+		@Override
+		public void write(int b) {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] buffer, int offset, int length) {
+			for (int i = offset; i < offset + length; i++) {
+				if (buffer[i] == '\n') {
+					lines++;
+				}
+			}
+			bytes += length;
+			if (bytes >= nextSample) {
+				peak = Math.max(peak, liveHeap());
+				nextSample += SAMPLE_EVERY;
+			}
+		}
+
+		long peakGrowth() {
+			return peak - baseline;
+		}
+
+		private long liveHeap() {
+			System.gc();
+			return memory.getHeapMemoryUsage().getUsed();
+		}
+	}
+
+
+}
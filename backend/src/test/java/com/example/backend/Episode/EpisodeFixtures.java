@@ -0,0 +1,56 @@
+package com.example.backend.Episode;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.backend.MedicineDailyLog.MedicineDailyLog;
+
+// Unsaved episodes and medicine logs for the tests; every call builds new instances
+public final class EpisodeFixtures {
+
+	private EpisodeFixtures() {
+	}
+
+	public static Episode episode(String username, LocalDate date, MedicineDailyLog... logs) {
+		Episode episode = new Episode();
+		episode.setUsername(username);
+		episode.setEpisodeDate(date);
+		episode.setMedicineLogs(new ArrayList<>(List.of(logs)));
+		return episode;
+	}
+
+	public static Episode episode(String username, LocalDate date, int evening, MedicineDailyLog... logs) {
+		Episode episode = episode(username, date, logs);
+		episode.setEveningSeverity(evening);
+		return episode;
+	}
+
+	public static Episode episode(String username, LocalDate date, boolean menstrual,
+			int morning, int afternoon, int evening, int... triggerIds) {
+		Episode episode = episode(username, date, evening);
+		episode.setMenstrualPeriod(menstrual);
+		episode.setMorningSeverity(morning);
+		episode.setAfternoonSeverity(afternoon);
+		episode.setTriggerIds(triggerIds);
+		return episode;
+	}
+
+	public static Episode withMedicine(Episode episode, MedicineDailyLog... logs) {
+		episode.getMedicineLogs().addAll(List.of(logs));
+		return episode;
+	}
+
+	public static MedicineDailyLog medicine(String name, Integer relief) {
+		return medicine(name, null, relief);
+	}
+
+	public static MedicineDailyLog medicine(String name, String timeTaken, Integer relief) {
+		MedicineDailyLog log = new MedicineDailyLog();
+		log.setMedicineName(name);
+		log.setDose("1 tablet");
+		log.setTimeTaken(timeTaken);
+		log.setRelief(relief);
+		return log;
+	}
+}
@@ -0,0 +1,136 @@
+package com.example.backend.Episode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.MonthlySummary.MonthlySummaryService;
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+class EpisodeImportServiceTests {
+
+	@Autowired
+	private EpisodeImportService episodeImportService;
+
+	@Autowired
+	private EpisodeService episodeService;
+
+	@Autowired
+	private EpisodeRepository episodeRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private MonthlySummaryService monthlySummaryService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeEach
+	void setUp() {
+		episodeRepository.deleteAll();
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+	}
+
+	@Test
+	void jsonImportBatchesInsertsAndReportsDuplicates() throws Exception {
+		Episode existing = new Episode();
+		existing.setUsername("alice");
+		existing.setEpisodeDate(LocalDate.of(2020, 1, 10));
+		episodeService.saveEpisode(existing);
+
+		LocalDate start = LocalDate.of(2020, 1, 1);
+		List<Map<String, Object>> rows = new ArrayList<>();
+		for (int day = 0; day < 1200; day++) {
+			rows.add(Map.of(
+					"episodeDate", start.plusDays(day).toString(),
+					"morningSeverity", 2,
+					"triggerIds", List.of(5),
+					"medicineLogs", List.of(
+							Map.of("medicineName", "ibuprofen", "dose", "400mg", "relief", 3),
+							Map.of("medicineName", "sumatriptan", "dose", "50mg", "relief", 4))));
+		}
+		rows.add(Map.of("episodeDate", "2020-01-02"));
+		byte[] body = objectMapper.writeValueAsBytes(rows);
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		EpisodeImportResult result = episodeImportService.importJson("alice", new ByteArrayInputStream(body));
+
+		assertThat(result.imported()).isEqualTo(1199);
+		assertThat(result.failures()).extracting(EpisodeImportResult.Failure::row).containsExactly(10, 1201);
+		assertThat(episodeRepository.count()).isEqualTo(1200);
+		// 1199 episodes + 2398 medicine logs go out as JDBC batches, not one statement per row
+		assertThat(statistics.getPrepareStatementCount()).isLessThan(300);
+		assertThat(monthlySummaryService.getSummary("alice", 2020, 1).getEpisodeCount()).isEqualTo(31);
+	}
+
+	@Test
+	void jsonImportReportsMalformedRowsAndContinues() throws Exception {
+		String body = """
+				[{"episodeDate": "2021-03-01"},
+				 {"episodeDate": "not-a-date"},
+				 {"morningSeverity": 4},
+				 {"episodeDate": "2021-03-02"}]
+				""";
+
+		EpisodeImportResult result = episodeImportService.importJson("alice",
+				new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+		assertThat(result.imported()).isEqualTo(2);
+		assertThat(result.failures()).extracting(EpisodeImportResult.Failure::row).containsExactly(2, 3);
+	}
+
+	@Test
+	void csvImportGroupsMedicineRowsByDate() throws Exception {
+		String csv = """
+				episodeDate,morningSeverity,eveningSeverity,menstrualPeriod,triggerIds,notes,medicineName,dose,relief
+				2022-05-01,3,5,true,5;10,"red wine, late night",ibuprofen,400mg,2
+				2022-05-01,3,5,true,5;10,"red wine, late night",sumatriptan,50mg,4
+				2022-05-02,x,1,false,,,,,
+				2022-05-03,1,1,false,,"said ""no"" to coffee",,,
+				""";
+
+		EpisodeImportResult result = episodeImportService.importCsv("alice", new StringReader(csv));
+
+		assertThat(result.imported()).isEqualTo(2);
+		assertThat(result.failures()).extracting(EpisodeImportResult.Failure::row).containsExactly(4);
+		Episode first = episodeService.getEpisodeByDate("alice", LocalDate.of(2022, 5, 1)).orElseThrow();
+		assertThat(first.getNotes()).isEqualTo("red wine, late night");
+		assertThat(first.getTriggerIds()).containsExactly(5, 10);
+		assertThat(first.getMedicineLogs()).extracting("medicineName").containsExactly("ibuprofen", "sumatriptan");
+		assertThat(episodeService.getEpisodeByDate("alice", LocalDate.of(2022, 5, 3)).orElseThrow().getNotes())
+				.isEqualTo("said \"no\" to coffee");
+	}
+
+	@Test
+	void unknownUserIsRejected() {
+		assertThatThrownBy(() -> episodeImportService.importCsv("nobody", new StringReader("episodeDate\n2022-01-01\n")))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
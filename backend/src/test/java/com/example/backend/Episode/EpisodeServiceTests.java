@@ -0,0 +1,265 @@
+package com.example.backend.Episode;
+
+import static com.example.backend.Episode.EpisodeFixtures.episode;
+import static com.example.backend.Episode.EpisodeFixtures.medicine;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.MedicineDailyLog.MedicineDailyLog;
+import com.example.backend.MedicineDailyLog.MedicineDailyLogRepository;
+import com.example.backend.MonthlySummary.MonthlySummaryService;
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+class EpisodeServiceTests {
+
+	@Autowired
+	private EpisodeService episodeService;
+
+	@MockitoSpyBean
+	private EpisodeRepository episodeRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private MedicineDailyLogRepository medicineDailyLogRepository;
+
+	@Autowired
+	private MonthlySummaryService monthlySummaryService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		episodeRepository.deleteAll();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void savedEpisodesAreCountedAfterCommit() {
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+		double savedBefore = meterRegistry.get("episodes.saved").tag("source", "log").counter().count();
+		long logsBefore = meterRegistry.get("episodes.medicine.logs").summary().count();
+
+		Episode episode = new Episode();
+		episode.setUsername("alice");
+		episode.setEpisodeDate(LocalDate.of(2024, 4, 1));
+		episode.getMedicineLogs().add(new MedicineDailyLog());
+		episode.getMedicineLogs().add(new MedicineDailyLog());
+		episodeService.saveEpisode(episode);
+
+		assertThat(meterRegistry.get("episodes.saved").tag("source", "log").counter().count() - savedBefore).isEqualTo(1);
+		assertThat(meterRegistry.get("episodes.medicine.logs").summary().count() - logsBefore).isEqualTo(1);
+	}
+
+	@Test
+	void editedEpisodesAreCounted() {
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+		LocalDate day = LocalDate.of(2024, 4, 2);
+		int episodeId = episodeService.saveEpisode(episode("alice", day, 1)).getEpisodeId();
+		double savedBefore = meterRegistry.get("episodes.saved").tag("source", "log").counter().count();
+
+		episodeService.updateEpisode("alice", episodeId, episode("alice", day, 2));
+
+		assertThat(meterRegistry.get("episodes.saved").tag("source", "log").counter().count() - savedBefore).isEqualTo(1);
+	}
+
+	@Test
+	void losingAFirstLogRaceMergesIntoTheWinner() {
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+		LocalDate day = LocalDate.of(2031, 7, 2);
+		int userId = userRepository.findByUsername("alice").getUserId();
+		TransactionTemplate otherRequest = new TransactionTemplate(transactionManager);
+		otherRequest.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		AtomicBoolean raced = new AtomicBoolean();
+		// The first lookup misses while another request stores the same day; later lookups see its episode
+		doAnswer(invocation -> {
+			if (raced.compareAndSet(false, true)) {
+				otherRequest.executeWithoutResult(status -> save("alice", day));
+				return Optional.empty();
+			}
+			return episodeRepository.findByUserId(userId).stream()
+					.filter(episode -> episode.getEpisodeDate().equals(day))
+					.findFirst();
+		}).when(episodeRepository).findByUserIdAndEpisodeDate(anyInt(), any(LocalDate.class));
+
+		Episode saved = episodeService.saveEpisode(episode("alice", day, 3, medicine("ibuprofen", "08:00", 2)));
+
+		assertThat(raced).isTrue();
+		assertThat(episodeRepository.findByUserId(userId)).singleElement()
+				.extracting(Episode::getEpisodeId).isEqualTo(saved.getEpisodeId());
+		Episode stored = episodeService.getEpisodeByDate("alice", day).orElseThrow();
+		assertThat(stored.getEveningSeverity()).isEqualTo(3);
+		assertThat(stored.getMedicineLogs()).extracting(MedicineDailyLog::getMedicineName).containsExactly("ibuprofen");
+	}
+
+	@Test
+	void monthLookupUsesHalfOpenBounds() {
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+		userRepository.save(new User("bob", "secret", "bob@example.com", false));
+		save("alice", LocalDate.of(2024, 1, 31));
+		save("alice", LocalDate.of(2024, 2, 1));
+		save("alice", LocalDate.of(2024, 2, 29));
+		save("alice", LocalDate.of(2024, 3, 1));
+		save("bob", LocalDate.of(2024, 2, 10));
+
+		List<Episode> february = episodeService.getUserEpisodesByMonth("alice", 2024, 2);
+
+		assertThat(february).extracting(Episode::getEpisodeDate)
+				.containsExactly(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29));
+	}
+
+	@Test
+	void monthLookupRollsOverYearEnd() {
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+		save("alice", LocalDate.of(2023, 12, 31));
+		save("alice", LocalDate.of(2024, 1, 1));
+
+		List<Episode> december = episodeService.getUserEpisodesByMonth("alice", 2023, 12);
+
+		assertThat(december).extracting(Episode::getEpisodeDate)
+				.containsExactly(LocalDate.of(2023, 12, 31));
+	}
+
+	@Test
+	void reloggingADayUpdatesItsEpisodeAndDiffsTheMedicineLogs() {
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+		LocalDate day = LocalDate.of(2031, 4, 2);
+		Episode first = episodeService.saveEpisode(episode("alice", day, 1, medicine("ibuprofen", "08:00", 1), medicine("sumatriptan", "12:00", 2)));
+		Long ibuprofenId = first.getMedicineLogs().get(0).getId();
+
+		statistics.clear();
+		Episode second = episodeService.saveEpisode(episode("alice", day, 3, medicine("ibuprofen", "08:00", 3), medicine("naproxen", "", 2)));
+
+		assertThat(second.getEpisodeId()).isEqualTo(first.getEpisodeId());
+		assertThat(logStatistics().getInsertCount()).isEqualTo(1);
+		assertThat(logStatistics().getUpdateCount()).isEqualTo(1);
+		assertThat(logStatistics().getDeleteCount()).isEqualTo(1);
+
+		Episode stored = episodeService.getEpisodeByDate("alice", day).orElseThrow();
+		assertThat(stored.getEveningSeverity()).isEqualTo(3);
+		assertThat(stored.getMedicineLogs()).extracting(MedicineDailyLog::getMedicineName)
+				.containsExactlyInAnyOrder("ibuprofen", "naproxen");
+		assertThat(stored.getMedicineLogs()).filteredOn(log -> log.getId().equals(ibuprofenId))
+				.singleElement().extracting(MedicineDailyLog::getRelief).isEqualTo(3);
+		assertThat(monthlySummaryService.getSummary("alice", 2031, 4).getEpisodeCount()).isEqualTo(1);
+		assertThat(monthlySummaryService.getSummary("alice", 2031, 4).getAverageEveningSeverity()).isEqualTo(3.0);
+	}
+
+	@Test
+	void reloggingMergesSeveritiesAndNotesWhileEditingReplacesEverything() {
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+		LocalDate day = LocalDate.of(2031, 6, 2);
+		Episode first = episode("alice", day, 1);
+		first.setTriggerIds(new int[] { 4 });
+		first.setMenstrualPeriod(true);
+		int episodeId = episodeService.saveEpisode(first).getEpisodeId();
+
+		Episode again = episode("alice", day, 3);
+		again.setNotes("worse by evening");
+		episodeService.saveEpisode(again);
+
+		Episode merged = episodeService.getEpisodeByDate("alice", day).orElseThrow();
+		assertThat(merged.getEveningSeverity()).isEqualTo(3);
+		assertThat(merged.getNotes()).isEqualTo("worse by evening");
+		assertThat(merged.getTriggerIds()).containsExactly(4);
+		assertThat(merged.isMenstrualPeriod()).isTrue();
+
+		episodeService.updateEpisode("alice", episodeId, episode("alice", day, 2));
+
+		Episode replaced = episodeService.getEpisodeByDate("alice", day).orElseThrow();
+		assertThat(replaced.getEveningSeverity()).isEqualTo(2);
+		assertThat(replaced.getTriggerIds()).isEmpty();
+		assertThat(replaced.isMenstrualPeriod()).isFalse();
+	}
+
+	@Test
+	void reloggingAnUnchangedDayWritesNoMedicineLogs() {
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+		LocalDate day = LocalDate.of(2031, 5, 2);
+		episodeService.saveEpisode(episode("alice", day, 2, medicine("ibuprofen", "08:00", 1)));
+
+		statistics.clear();
+		// A blank time taken keeps the stored one
+		episodeService.saveEpisode(episode("alice", day, 2, medicine("ibuprofen", "", 1)));
+
+		assertThat(logStatistics().getInsertCount()).isZero();
+		assertThat(logStatistics().getUpdateCount()).isZero();
+		assertThat(logStatistics().getDeleteCount()).isZero();
+		assertThat(statistics.getEntityStatistics(Episode.class.getName()).getUpdateCount()).isZero();
+	}
+
+	@Test
+	void deletingAnEpisodeRemovesItsLogsWithoutLoadingThem() {
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+		LocalDate day = LocalDate.of(2031, 6, 2);
+		userRepository.save(new User("bob", "secret", "bob@example.com", false));
+		Episode episode = episodeService.saveEpisode(episode("alice", day, 2, medicine("ibuprofen", "08:00", 1), medicine("naproxen", "09:00", 1)));
+		assertThat(episodeService.deleteEpisode("bob", episode.getEpisodeId())).isFalse();
+
+		statistics.clear();
+		assertThat(episodeService.deleteEpisode("alice", episode.getEpisodeId())).isTrue();
+
+		assertThat(logStatistics().getLoadCount()).isZero();
+		assertThat(episodeService.getEpisodeByDate("alice", day)).isEmpty();
+		assertThat(medicineDailyLogRepository.count()).isZero();
+		assertThat(monthlySummaryService.getSummary("alice", 2031, 6).getEpisodeCount()).isZero();
+		assertThat(episodeService.deleteEpisode("alice", episode.getEpisodeId())).isFalse();
+	}
+
+	private EntityStatistics logStatistics() {
+		return statistics.getEntityStatistics(MedicineDailyLog.class.getName());
+	}
+
+
+
+	private void save(String username, LocalDate date) {
+		Episode episode = new Episode();
+		episode.setUserId(userRepository.findByUsername(username).getUserId());
+		episode.setEpisodeDate(date);
+		episode.setTriggerIds(new int[] { 1 });
+		episodeRepository.save(episode);
+	}
+}
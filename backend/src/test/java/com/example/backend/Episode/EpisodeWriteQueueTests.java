@@ -0,0 +1,157 @@
+package com.example.backend.Episode;
+
+import static com.example.backend.Episode.EpisodeFixtures.episode;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// The worker only runs at startup here; each test drains explicitly
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:episode_queue;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"episode-queue.enabled=true",
+		"episode-queue.directory=target/episode-queue-${random.uuid}",
+		"episode-queue.capacity=3",
+		"episode-queue.drain-interval=1h"
+})
+@AutoConfigureMockMvc
+class EpisodeWriteQueueTests {
+
+	@Autowired
+	private EpisodeWriteQueue episodeWriteQueue;
+
+	@Autowired
+	private EpisodeService episodeService;
+
+	@Autowired
+	private EpisodeRepository episodeRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@TempDir
+	private Path journalDirectory;
+
+	@BeforeEach
+	void setUp() {
+		episodeRepository.deleteAll();
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+		userRepository.save(new User("bob", "secret", "bob@example.com", false));
+	}
+
+	@AfterEach
+	void drainLeftovers() {
+		episodeWriteQueue.drain();
+	}
+
+	@Test
+	void queuedEpisodesAreCoalescedPerUserAndDay() {
+		LocalDate day = LocalDate.of(2024, 3, 1);
+		episodeWriteQueue.enqueue(episode("alice", day, 1));
+		episodeWriteQueue.enqueue(episode("alice", day, 3));
+		episodeWriteQueue.enqueue(episode("bob", day, 2));
+
+		assertThat(episodeRepository.count()).isZero();
+		assertThat(meterRegistry.get("episodes.queue.depth").gauge().value()).isEqualTo(3);
+
+		episodeWriteQueue.drain();
+
+		assertThat(episodeWriteQueue.depth()).isZero();
+		assertThat(episodeRepository.count()).isEqualTo(2);
+		assertThat(episodeService.getEpisodeByDate("alice", day)).get()
+				.extracting(Episode::getEveningSeverity).isEqualTo(3);
+	}
+
+	@Test
+	void loggingIsAcceptedUntilTheQueueIsFull() throws Exception {
+		for (int day = 1; day <= 3; day++) {
+			mockMvc.perform(post("/episodes/log")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(objectMapper.writeValueAsString(episode("alice", LocalDate.of(2024, 4, day), 2))))
+					.andExpect(status().isAccepted())
+					.andExpect(jsonPath("$.episodeDate").value("2024-04-0" + day));
+		}
+
+		mockMvc.perform(post("/episodes/log")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(episode("alice", LocalDate.of(2024, 4, 4), 2))))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string("Retry-After", "1"));
+
+		episodeWriteQueue.drain();
+		assertThat(episodeRepository.count()).isEqualTo(3);
+	}
+
+	@Test
+	void unknownUsersAreRejectedBeforeQueueing() throws Exception {
+		mockMvc.perform(post("/episodes/log")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(episode("mallory", LocalDate.of(2024, 4, 1), 2))))
+				.andExpect(status().isBadRequest());
+
+		assertThat(episodeWriteQueue.depth()).isZero();
+	}
+
+	@Test
+	void journalReplaysEntriesPastTheCheckpointAndDropsATornTail() throws IOException {
+		try (EpisodeJournal journal = EpisodeJournal.open(journalDirectory, objectMapper, true)) {
+			assertThat(journal.replay()).isEmpty();
+			long first = journal.append(new EpisodeJournal.Entry(1, episode("alice", LocalDate.of(2024, 5, 1), 1)));
+			journal.append(new EpisodeJournal.Entry(2, episode("alice", LocalDate.of(2024, 5, 2), 2)));
+			journal.append(new EpisodeJournal.Entry(3, episode("bob", LocalDate.of(2024, 5, 1), 3)));
+			journal.force();
+			journal.checkpoint(first);
+		}
+		// A crash in the middle of the next append
+		Files.write(journalDirectory.resolve(EpisodeJournal.JOURNAL_FILE),
+				"{\"enqueuedAt\":4,\"episode\":{\"user".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+		try (EpisodeJournal journal = EpisodeJournal.open(journalDirectory, objectMapper, true)) {
+			List<EpisodeJournal.Replayed> replayed = journal.replay();
+
+			assertThat(replayed).extracting(entry -> entry.entry().enqueuedAt()).containsExactly(2L, 3L);
+			assertThat(replayed.get(1).entry().episode().getUsername()).isEqualTo("bob");
+			assertThat(replayed.get(1).endOffset()).isEqualTo(journal.size());
+
+			// Fully stored: the journal is emptied
+			journal.checkpoint(replayed.get(1).endOffset());
+			assertThat(journal.size()).isZero();
+		}
+	}
+
+}
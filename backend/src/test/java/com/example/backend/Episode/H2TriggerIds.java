@@ -0,0 +1,15 @@
+package com.example.backend.Episode;
+
+import java.util.Arrays;
+
+// H2 stand-in for the Postgres episode_trigger_ids function (db/migration/V4__episode_trigger_ids.sql), bound
+// by src/test/resources/import.sql. Boxed because H2 maps only object arrays to SQL arrays.
+public final class H2TriggerIds {
+
+	private H2TriggerIds() {
+	}
+
+	public static Integer[] of(long mask) {
+		return Arrays.stream(TriggerMask.ids(mask)).boxed().toArray(Integer[]::new);
+	}
+}
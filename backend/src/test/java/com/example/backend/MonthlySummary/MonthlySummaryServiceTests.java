@@ -0,0 +1,136 @@
+package com.example.backend.MonthlySummary;
+
+import static com.example.backend.Episode.EpisodeFixtures.episode;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.Episode.Episode;
+import com.example.backend.Episode.EpisodeRepository;
+import com.example.backend.Episode.EpisodeService;
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserRepository;
+
+@SpringBootTest
+class MonthlySummaryServiceTests {
+
+	@Autowired
+	private MonthlySummaryService monthlySummaryService;
+
+	@Autowired
+	private MonthlySummaryRepository monthlySummaryRepository;
+
+	@Autowired
+	private EpisodeService episodeService;
+
+	@Autowired
+	private EpisodeRepository episodeRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@BeforeEach
+	void setUp() {
+		monthlySummaryRepository.deleteAll();
+		episodeRepository.deleteAll();
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+	}
+
+	@Test
+	void saveEpisodeUpdatesMonthlySummary() {
+		episodeService.saveEpisode(episode("alice", LocalDate.of(2024, 5, 1), true, 6, 4, 2, 1, 5));
+		episodeService.saveEpisode(episode("alice", LocalDate.of(2024, 5, 2), false, 2, 2, 2, 5));
+		episodeService.saveEpisode(episode("alice", LocalDate.of(2024, 6, 1), false, 9, 9, 9, 10));
+
+		MonthlySummary may = monthlySummaryService.getSummary("alice", 2024, 5);
+
+		assertThat(may.getEpisodeCount()).isEqualTo(2);
+		assertThat(may.getAverageMorningSeverity()).isCloseTo(4.0, within(1e-9));
+		assertThat(may.getAverageEveningSeverity()).isCloseTo(2.0, within(1e-9));
+		assertThat(may.getMenstrualDays()).isEqualTo(1);
+		assertThat(may.getAverageMenstrualDaySeverity()).isCloseTo(12.0, within(1e-9));
+		assertThat(may.getAverageNonMenstrualDaySeverity()).isCloseTo(6.0, within(1e-9));
+		assertThat(may.getTriggerCounts()).containsExactly(entry(1, 1), entry(5, 2));
+	}
+
+	@Test
+	void missingMonthIsEmptySummary() {
+		MonthlySummary summary = monthlySummaryService.getSummary("alice", 2020, 1);
+
+		assertThat(summary.getEpisodeCount()).isZero();
+		assertThat(summary.getTriggerCounts()).isEmpty();
+	}
+
+	@Test
+	void rebuildBackfillsFromExistingEpisodesAcrossChunks() {
+		int alice = userRepository.findByUsername("alice").getUserId();
+		int bob = userRepository.save(new User("bob", "secret", "bob@example.com", false)).getUserId();
+		LocalDate start = LocalDate.of(2023, 1, 1);
+		for (int day = 0; day < 90; day++) {
+			episodeRepository.save(owned(alice, episode("alice", start.plusDays(day), day % 7 == 0, day % 10, 1, 0, 3)));
+			episodeRepository.save(owned(bob, episode("bob", start.plusDays(day), false, 2, 2, 2, day % 32 + 1)));
+		}
+
+		int months = monthlySummaryService.rebuildAll(7);
+
+		assertThat(months).isEqualTo(6);
+		MonthlySummary aliceFebruary = monthlySummaryService.getSummary("alice", 2023, 2);
+		assertThat(aliceFebruary.getEpisodeCount()).isEqualTo(28);
+		assertThat(aliceFebruary.getTriggerCounts()).containsExactly(entry(3, 28));
+		MonthlySummary bobMarch = monthlySummaryService.getSummary("bob", 2023, 3);
+		assertThat(bobMarch.getEpisodeCount()).isEqualTo(31);
+		assertThat(bobMarch.getAverageMorningSeverity()).isCloseTo(2.0, within(1e-9));
+
+		// Rebuilding again overwrites instead of double counting
+		monthlySummaryService.rebuildAll(7);
+		assertThat(monthlySummaryService.getSummary("alice", 2023, 2).getEpisodeCount()).isEqualTo(28);
+	}
+
+	@Test
+	void rebuildZeroesMonthsWithoutEpisodes() {
+		episodeService.saveEpisode(episode("alice", LocalDate.of(2024, 5, 1), true, 3, 3, 3, 2));
+		// Deleting through the repository skips EpisodeService and leaves the rollup behind
+		episodeRepository.deleteAll();
+
+		int months = monthlySummaryService.rebuildAll(7);
+
+		assertThat(months).isEqualTo(1);
+		MonthlySummary may = monthlySummaryService.getSummary("alice", 2024, 5);
+		assertThat(may.getEpisodeCount()).isZero();
+		assertThat(may.getMenstrualDays()).isZero();
+		assertThat(may.getTriggerCounts()).isEmpty();
+	}
+
+	@Test
+	void versionTagOfAMonthWithoutSummaryComesFromItsEpisodesWithoutWriting() {
+		int alice = userRepository.findByUsername("alice").getUserId();
+		episodeRepository.save(owned(alice, episode("alice", LocalDate.of(2024, 5, 1), false, 3, 3, 3)));
+
+		String tag = monthlySummaryService.getVersionTag("alice", 2024, 5);
+
+		assertThat(tag).isNotEqualTo("0.0");
+		assertThat(monthlySummaryService.getVersionTag("alice", 2024, 5)).isEqualTo(tag);
+		assertThat(monthlySummaryRepository.findByUsernameAndYearAndMonth("alice", 2024, 5)).isEmpty();
+		episodeRepository.save(owned(alice, episode("alice", LocalDate.of(2024, 5, 3), false, 2, 2, 2)));
+		String backfilled = monthlySummaryService.getVersionTag("alice", 2024, 5);
+		assertThat(backfilled).isNotEqualTo(tag);
+		episodeService.saveEpisode(episode("alice", LocalDate.of(2024, 5, 2), false, 1, 1, 1));
+		assertThat(monthlySummaryService.getVersionTag("alice", 2024, 5)).isNotIn(tag, backfilled);
+		assertThat(monthlySummaryService.getVersionTag("alice", 2024, 7)).isEqualTo("0.0");
+	}
+
+	// Episodes saved straight through the repository skip EpisodeService, which normally sets the owner
+	private static Episode owned(int userId, Episode episode) {
+		episode.setUserId(userId);
+		return episode;
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.example.backend.Partitions;
+
+import static com.example.backend.Episode.EpisodeFixtures.episode;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.backend.Episode.Episode;
+import com.example.backend.Episode.EpisodeExportService;
+import com.example.backend.Episode.EpisodeImportService;
+import com.example.backend.Episode.EpisodeRepository;
+import com.example.backend.Episode.EpisodeService;
+import com.example.backend.MedicineDailyLog.MedicineDailyLog;
+import com.example.backend.MedicineDailyLog.MedicineDailyLogRepository;
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserRepository;
+
+// H2 has no partitioned tables, so the partition DDL itself is mocked; this checks that every write path asks
+// for its year first, before its transaction starts, and that the logs' copy of the partition key follows
+// their episode
+@SpringBootTest
+class YearPartitionsTests {
+
+	@MockitoBean
+	private YearPartitions yearPartitions;
+
+	@Autowired
+	private EpisodeService episodeService;
+
+	@Autowired
+	private EpisodeImportService episodeImportService;
+
+	@Autowired
+	private EpisodeExportService episodeExportService;
+
+	@Autowired
+	private EpisodeRepository episodeRepository;
+
+	@Autowired
+	private MedicineDailyLogRepository medicineDailyLogRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@BeforeEach
+	void setUp() {
+		episodeRepository.deleteAll();
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+	}
+
+	@Test
+	void everyWriteEnsuresItsYearFirst() throws Exception {
+		Episode episode = episodeService.saveEpisode(episode("alice", LocalDate.of(2015, 6, 1)));
+		episodeService.updateEpisode("alice", episode.getEpisodeId(), episode("alice", LocalDate.of(2016, 6, 1)));
+		episodeImportService.importCsv("alice", new StringReader("""
+				episodeDate,morningSeverity
+				2009-03-01,1
+				2010-03-01,2
+				"""));
+
+		InOrder order = inOrder(yearPartitions);
+		order.verify(yearPartitions).ensureYear(2015);
+		order.verify(yearPartitions).ensureYear(2016);
+		verify(yearPartitions).ensureYear(2009);
+		verify(yearPartitions).ensureYear(2010);
+	}
+
+	@Test
+	void writeTransactionsNeverCreatePartitions() throws Exception {
+		List<Boolean> inTransaction = new ArrayList<>();
+		doAnswer(invocation -> inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive()))
+				.when(yearPartitions).ensureYear(anyInt());
+
+		Episode episode = episodeService.saveEpisode(episode("alice", LocalDate.of(2015, 6, 1)));
+		episodeService.updateEpisode("alice", episode.getEpisodeId(), episode("alice", LocalDate.of(2016, 6, 1)));
+		episodeImportService.importCsv("alice", new StringReader("""
+				episodeDate,morningSeverity
+				2009-03-01,1
+				"""));
+
+		assertThat(inTransaction).hasSize(3).containsOnly(false);
+	}
+
+	@Test
+	void movedEpisodeTakesItsMedicineLogsAlong() throws Exception {
+		Episode episode = episode("alice", LocalDate.of(2023, 12, 31));
+		MedicineDailyLog log = new MedicineDailyLog();
+		log.setMedicineName("ibuprofen");
+		log.setDose("400mg");
+		log.setTimeTaken("08:00");
+		episode.getMedicineLogs().add(log);
+		int episodeId = episodeService.saveEpisode(episode).getEpisodeId();
+
+		Episode moved = episode("alice", LocalDate.of(2024, 1, 2));
+		MedicineDailyLog same = new MedicineDailyLog();
+		same.setMedicineName("ibuprofen");
+		same.setDose("400mg");
+		same.setTimeTaken("08:00");
+		moved.getMedicineLogs().add(same);
+		episodeService.updateEpisode("alice", episodeId, moved);
+
+		assertThat(medicineDailyLogRepository.findAll()).singleElement()
+				.extracting(MedicineDailyLog::getEpisodeDate)
+				.isEqualTo(LocalDate.of(2024, 1, 2));
+		// The export joins on the partition key too, so a stale copy would drop the log from it
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		episodeExportService.exportCsv("alice", out);
+		assertThat(out.toString(StandardCharsets.UTF_8)).contains("2024-01-02,").contains(",ibuprofen,400mg,");
+	}
+
+}
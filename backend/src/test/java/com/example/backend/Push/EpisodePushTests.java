@@ -0,0 +1,158 @@
+package com.example.backend.Push;
+
+import static com.example.backend.Episode.EpisodeFixtures.episode;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.ConnectionLostException;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import com.example.backend.Episode.Episode;
+import com.example.backend.Episode.EpisodeRepository;
+import com.example.backend.Episode.EpisodeService;
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties =
+		"spring.datasource.url=jdbc:h2:mem:episode_push;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class EpisodePushTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private EpisodeService episodeService;
+
+	@Autowired
+	private EpisodeRepository episodeRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private WebSocketStompClient stompClient;
+
+	@BeforeEach
+	void setUp() {
+		episodeRepository.deleteAll();
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+		userRepository.save(new User("bob", "secret", "bob@example.com", false));
+
+		stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+		MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+		converter.setObjectMapper(objectMapper);
+		stompClient.setMessageConverter(converter);
+	}
+
+	@AfterEach
+	void tearDown() {
+		stompClient.stop();
+	}
+
+	@Test
+	void subscribersReceiveOnlyTheirOwnDeltasAfterCommit() throws Exception {
+		StompSession session = connect("alice", new StompSessionHandlerAdapter() {
+		});
+		BlockingQueue<EpisodeEvent> aliceEvents = subscribe(session, "/user" + EpisodePublisher.QUEUE);
+		// SUBSCRIBE frames are handled asynchronously on the server
+		Thread.sleep(500);
+
+		episodeService.saveEpisode(episode("bob", LocalDate.of(2024, 3, 1)));
+		Episode saved = episodeService.saveEpisode(episode("alice", LocalDate.of(2024, 3, 1)));
+
+		assertThat(aliceEvents.poll(5, TimeUnit.SECONDS)).isEqualTo(new EpisodeEvent(
+				EpisodeEvent.Type.SAVED, "alice", LocalDate.of(2024, 3, 1), saved.getEpisodeId()));
+
+		episodeService.deleteEpisode("alice", saved.getEpisodeId());
+
+		assertThat(aliceEvents.poll(5, TimeUnit.SECONDS)).isEqualTo(new EpisodeEvent(
+				EpisodeEvent.Type.DELETED, "alice", LocalDate.of(2024, 3, 1), saved.getEpisodeId()));
+		assertThat(aliceEvents).isEmpty();
+		session.disconnect();
+	}
+
+	@Test
+	void subscribingToAnotherUsersDestinationIsRefused() throws Exception {
+		CompletableFuture<Throwable> closed = new CompletableFuture<>();
+		StompSession session = connect("alice", new StompSessionHandlerAdapter() {
+			@Override
+			public void handleTransportError(StompSession session, Throwable exception) {
+				closed.complete(exception);
+			}
+		});
+		BlockingQueue<EpisodeEvent> bobEvents = subscribe(session, "/user/bob" + EpisodePublisher.QUEUE);
+
+		// The server answers with an ERROR frame and closes the session
+		assertThat(closed.get(5, TimeUnit.SECONDS)).isInstanceOf(ConnectionLostException.class);
+		assertThat(session.isConnected()).isFalse();
+		episodeService.saveEpisode(episode("bob", LocalDate.of(2024, 3, 1)));
+		assertThat(bobEvents.poll(1, TimeUnit.SECONDS)).isNull();
+	}
+
+	@Test
+	void connectingWithAWrongPasswordIsRefused() {
+		StompHeaders login = new StompHeaders();
+		login.setLogin("alice");
+		login.setPasscode("wrong");
+
+		assertThatThrownBy(() -> stompClient.connectAsync("ws://localhost:" + port + "/ws", handshakeHeaders(), login,
+				new StompSessionHandlerAdapter() {
+				}).get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+	}
+
+	private StompSession connect(String username, StompSessionHandlerAdapter handler) throws Exception {
+		StompHeaders login = new StompHeaders();
+		login.setLogin(username);
+		login.setPasscode("secret");
+		return stompClient.connectAsync("ws://localhost:" + port + "/ws", handshakeHeaders(), login, handler)
+				.get(5, TimeUnit.SECONDS);
+	}
+
+	private static WebSocketHttpHeaders handshakeHeaders() {
+		WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+		headers.setOrigin("http://localhost:5173");
+		return headers;
+	}
+
+	private static BlockingQueue<EpisodeEvent> subscribe(StompSession session, String destination) {
+		BlockingQueue<EpisodeEvent> events = new LinkedBlockingQueue<>();
+		session.subscribe(destination, new StompFrameHandler() {
+			@Override
+			public Type getPayloadType(StompHeaders headers) {
+				return EpisodeEvent.class;
+			}
+
+			@Override
+			public void handleFrame(StompHeaders headers, Object payload) {
+				events.add((EpisodeEvent) payload);
+			}
+		});
+		return events;
+	}
+
+}
@@ -0,0 +1,133 @@
+package com.example.backend.Replica;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.Analytics.AnalyticsService;
+import com.example.backend.Analytics.EpisodeAnalyticsRepository;
+import com.example.backend.Episode.Episode;
+import com.example.backend.Episode.EpisodeService;
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Three separate in-memory H2 databases stand in for the primary and two replicas
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:routing_primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"replica-routing.enabled=true",
+		"replica-routing.sticky-window=1s",
+		"replica-routing.replicas[0].url=jdbc:h2:mem:routing_replica_a;DB_CLOSE_DELAY=-1",
+		"replica-routing.replicas[1].url=jdbc:h2:mem:routing_replica_b;DB_CLOSE_DELAY=-1"
+})
+class ReplicaRoutingTests {
+
+	private static final String PRIMARY = "jdbc:h2:mem:routing_primary";
+	private static final String REPLICA_A = "jdbc:h2:mem:routing_replica_a";
+	private static final String REPLICA_B = "jdbc:h2:mem:routing_replica_b";
+
+	@Autowired
+	private ReadYourWrites readYourWrites;
+
+	@Autowired
+	private EpisodeService episodeService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private AnalyticsService analyticsService;
+
+	@Autowired
+	@Qualifier("analyticsPool")
+	private ForkJoinPool analyticsPool;
+
+	@MockitoSpyBean
+	private EpisodeAnalyticsRepository episodeAnalyticsRepository;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Test
+	void readOnlyTransactionsRotateAcrossReplicas() {
+		String first = connectedTo(true);
+		String second = connectedTo(true);
+
+		assertThat(first).isIn(REPLICA_A, REPLICA_B);
+		assertThat(second).isIn(REPLICA_A, REPLICA_B).isNotEqualTo(first);
+		assertThat(connectedTo(false)).startsWith(PRIMARY);
+	}
+
+	@Test
+	void writerReadsFromThePrimaryUntilTheirWindowCloses() throws InterruptedException {
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+		Episode episode = new Episode();
+		episode.setUsername("alice");
+		episode.setEpisodeDate(LocalDate.of(2024, 3, 1));
+		episodeService.saveEpisode(episode);
+
+		assertThat(readYourWrites.readAs("alice", () -> connectedTo(true))).startsWith(PRIMARY);
+		assertThat(readYourWrites.readAs("alice", () -> connectedTo(true))).startsWith(PRIMARY);
+		assertThat(readYourWrites.readAs("bob", () -> connectedTo(true))).isIn(REPLICA_A, REPLICA_B);
+
+		Thread.sleep(1500);
+		assertThat(readYourWrites.readAs("alice", () -> connectedTo(true))).isIn(REPLICA_A, REPLICA_B);
+	}
+
+	@Test
+	void analyticsOnThePoolReadTheWritersHistoryFromThePrimary() {
+		userRepository.save(new User("carol", "secret", "carol@example.com", false));
+		Episode episode = new Episode();
+		episode.setUsername("carol");
+		episode.setEpisodeDate(LocalDate.of(2024, 3, 2));
+		episodeService.saveEpisode(episode);
+		List<String> readFrom = new ArrayList<>();
+		doAnswer(invocation -> {
+			readFrom.add(entityManager.unwrap(Session.class).doReturningWork(connection -> connection.getMetaData().getURL()));
+			return Stream.empty();
+		}).when(episodeAnalyticsRepository).streamLogRows(anyInt());
+
+		analyticsPool.submit(() -> analyticsService.getUserAnalytics("carol")).join();
+
+		assertThat(readFrom).singleElement().asString().startsWith(PRIMARY);
+	}
+
+	@Test
+	void asyncRequestsUnbindTheReaderWhenTheyLeaveTheServletThread() {
+		readYourWrites.recordWrite("dave");
+		ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(readYourWrites);
+		readYourWrites.bindUser("dave");
+		assertThat(readYourWrites.readsFromPrimary()).isTrue();
+
+		interceptor.afterConcurrentHandlingStarted(null, null, null);
+
+		assertThat(readYourWrites.readsFromPrimary()).isFalse();
+	}
+
+	private String connectedTo(boolean readOnly) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setReadOnly(readOnly);
+		return transaction.execute(status -> entityManager.unwrap(Session.class)
+				.doReturningWork(connection -> connection.getMetaData().getURL()));
+	}
+}
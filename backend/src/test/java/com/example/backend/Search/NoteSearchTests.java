@@ -0,0 +1,129 @@
+package com.example.backend.Search;
+
+import static com.example.backend.Episode.EpisodeFixtures.episode;
+import static com.example.backend.Episode.EpisodeFixtures.medicine;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.backend.Episode.Episode;
+import com.example.backend.Episode.EpisodeRepository;
+import com.example.backend.Episode.EpisodeService;
+import com.example.backend.MedicineDailyLog.MedicineDailyLog;
+import com.example.backend.Users.User;
+import com.example.backend.Users.UserRepository;
+
+// Runs against ScanNoteSearch (search.mode=scan on H2); PostgresNoteSearch needs a real Postgres
+@SpringBootTest
+@AutoConfigureMockMvc
+class NoteSearchTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private NoteSearchService noteSearchService;
+
+	@Autowired
+	private EpisodeService episodeService;
+
+	@Autowired
+	private EpisodeRepository episodeRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@BeforeEach
+	void setUp() {
+		episodeRepository.deleteAll();
+		userRepository.deleteAll();
+		userRepository.save(new User("alice", "secret", "alice@example.com", false));
+		userRepository.save(new User("bob", "secret", "bob@example.com", false));
+
+		episodeService.saveEpisode(noted("alice", LocalDate.of(2024, 1, 5), "Red wine at dinner, then more red wine.", null));
+		episodeService.saveEpisode(noted("alice", LocalDate.of(2024, 2, 9), "One glass of red wine with friends", null));
+		episodeService.saveEpisode(noted("alice", LocalDate.of(2024, 3, 1), "Slept badly", "Took it after the red wines wore off"));
+		episodeService.saveEpisode(noted("alice", LocalDate.of(2024, 4, 2), "Red eyes from the screen", null));
+		episodeService.saveEpisode(noted("bob", LocalDate.of(2024, 1, 5), "Red wine", null));
+	}
+
+	@Test
+	void ranksEpisodesMatchingEveryTermInTheirOwnOrTheirLogsNotes() {
+		NoteSearchPage page = noteSearchService.search("alice", "red wine", 0, 10);
+
+		assertThat(page.hits()).extracting(NoteSearchHit::episodeDate).containsExactly(
+				LocalDate.of(2024, 1, 5),
+				// equal scores, newest first
+				LocalDate.of(2024, 3, 1),
+				LocalDate.of(2024, 2, 9));
+		assertThat(page.hits().get(0).score()).isGreaterThan(page.hits().get(1).score());
+		assertThat(page.hits().get(0).snippet()).isEqualTo("«Red» «wine» at dinner, then more «red» «wine.»");
+		assertThat(page.hits().get(1).snippet()).isEqualTo("Took it after the «red» «wines» wore off");
+		assertThat(page.nextPage()).isNull();
+	}
+
+	@Test
+	void pagesThroughHits() throws Exception {
+		mockMvc.perform(get("/search/user/alice").param("q", "red wine").param("size", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.hits.length()").value(2))
+				.andExpect(jsonPath("$.nextPage").value(1));
+
+		mockMvc.perform(get("/search/user/alice").param("q", "red wine").param("size", "2").param("page", "1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.hits.length()").value(1))
+				.andExpect(jsonPath("$.hits[0].episodeDate").value("2024-02-09"))
+				.andExpect(jsonPath("$.nextPage").isEmpty());
+	}
+
+	@Test
+	void snippetsJoinTheEpisodesNotesBeforeItsLogsInLoggedOrder() {
+		Episode episode = noted("bob", LocalDate.of(2024, 6, 1), "Aura before lunch", "first dose, aura still there");
+		MedicineDailyLog second = medicine("ibuprofen", null);
+		second.setNotes("second dose, aura gone");
+		episode.getMedicineLogs().add(second);
+		episodeService.saveEpisode(episode);
+
+		assertThat(noteSearchService.search("bob", "aura", 0, 10).hits()).singleElement()
+				.extracting(NoteSearchHit::snippet).isEqualTo("«Aura» before lunch … first dose, «aura» still there");
+	}
+
+	@Test
+	void pageSizeOutsideTheLimitIsBadRequest() throws Exception {
+		mockMvc.perform(get("/search/user/alice").param("q", "red wine").param("size", "" + (NoteSearchService.MAX_PAGE_SIZE + 1)))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Page size must be between 1 and " + NoteSearchService.MAX_PAGE_SIZE));
+	}
+
+	@Test
+	void blankQueryIsBadRequest() throws Exception {
+		mockMvc.perform(get("/search/user/alice").param("q", " "))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void unknownUserHasNoHits() {
+		assertThat(noteSearchService.search("carol", "red wine", 0, 10).hits()).isEmpty();
+	}
+
+	private static Episode noted(String username, LocalDate date, String notes, String medicineNotes) {
+		Episode episode = episode(username, date);
+		episode.setNotes(notes);
+		if (medicineNotes != null) {
+			MedicineDailyLog log = medicine("ibuprofen", null);
+			log.setNotes(medicineNotes);
+			episode.getMedicineLogs().add(log);
+		}
+		return episode;
+	}
+}
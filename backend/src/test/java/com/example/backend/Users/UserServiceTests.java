@@ -0,0 +1,145 @@
+package com.example.backend.Users;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.example.backend.Episode.EpisodeRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+class UserServiceTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EpisodeRepository episodeRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@MockitoSpyBean
+	private PasswordEncoder passwordEncoder;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		// Episodes reference their owner (fk_episodes_user), so they go first
+		episodeRepository.deleteAll();
+		userRepository.deleteAll();
+		userService.registerUser(new User("alice", "secret", "alice@example.com", false)).join();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void repeatedLookupsHitTheCache() {
+		double hitsBefore = cacheGets("hit");
+
+		assertThat(userService.authenticateUser("alice", "secret").join()).isTrue();
+		assertThat(userService.getAccount("alice")).isPresent();
+		assertThat(userService.authenticateUser("alice", "wrong").join()).isFalse();
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(cacheGets("hit") - hitsBefore).isEqualTo(2);
+	}
+
+	@Test
+	void writingAUserEvictsTheCachedEntry() {
+		userService.getAccount("alice");
+
+		User changed = userRepository.findByUsername("alice");
+		changed.setPassword("changed");
+		userRepository.save(changed);
+
+		assertThat(userService.getAccount("alice")).get()
+				.extracting(UserAccount::passwordHash).isEqualTo("changed");
+	}
+
+	@Test
+	void bulkWritesAndDeletesByIdEvictTheCache() {
+		userService.getAccount("alice");
+		User changed = userRepository.findByUsername("alice");
+		changed.setPassword("changed");
+		userRepository.saveAll(List.of(changed));
+
+		assertThat(userService.getAccount("alice")).get()
+				.extracting(UserAccount::passwordHash).isEqualTo("changed");
+
+		userRepository.deleteById(changed.getUserId());
+
+		assertThat(userService.getAccount("alice")).isEmpty();
+	}
+
+	@Test
+	void unknownUsersAreNotCached() {
+		assertThat(userService.getAccount("bob")).isEmpty();
+		userService.registerUser(new User("bob", "secret", "bob@example.com", false)).join();
+
+		assertThat(userService.getAccount("bob")).isPresent();
+	}
+
+	@Test
+	void registerStoresAHashNotThePassword() {
+		String stored = userRepository.findByUsername("alice").getPassword();
+
+		assertThat(stored).isNotEqualTo("secret").startsWith("$2a$");
+	}
+
+	@Test
+	void legacyPlaintextPasswordIsHashedOnLogin() {
+		userRepository.save(new User("carol", "plaintext", "carol@example.com", false));
+
+		assertThat(userService.authenticateUser("carol", "wrong").join()).isFalse();
+		assertThat(userService.authenticateUser("carol", "plaintext").join()).isTrue();
+
+		assertThat(userRepository.findByUsername("carol").getPassword()).startsWith("$2a$");
+		assertThat(userService.getAccount("carol")).get()
+				.extracting(UserAccount::passwordHash).asString().startsWith("$2a$");
+		assertThat(userService.authenticateUser("carol", "plaintext").join()).isTrue();
+	}
+
+	@Test
+	void unknownUsernameStillCostsABcryptCheck() {
+		assertThat(userService.authenticateUser("nobody", "guess").join()).isFalse();
+
+		verify(passwordEncoder).matches(eq("guess"), anyString());
+	}
+
+	@Test
+	void usernamesArePagedInOrder() {
+		for (String name : new String[] { "dave", "bob", "erin", "carol" }) {
+			userRepository.save(new User(name, "secret", name + "@example.com", false));
+		}
+
+		assertThat(userService.getUsernames(null, 2)).containsExactly("alice", "bob");
+		assertThat(userService.getUsernames("bob", 2)).containsExactly("carol", "dave");
+		assertThat(userService.getUsernames("dave", 2)).containsExactly("erin");
+	}
+
+	private double cacheGets(String result) {
+		return meterRegistry.get("cache.gets").tag("cache", "users").tag("result", result).functionCounter().count();
+	}
+}
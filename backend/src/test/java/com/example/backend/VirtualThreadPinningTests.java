@@ -0,0 +1,69 @@
+package com.example.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+// Under the virtual-threads profile, blocking I/O inside a synchronized method or block pins the
+// carrier thread. Every request in this app blocks on JDBC, so synchronized is banned in our code;
+// use java.util.concurrent locks instead.
+class VirtualThreadPinningTests {
+
+	@Test
+	void applicationCodeHasNoSynchronizedSections() throws IOException {
+		List<String> offenders = new ArrayList<>();
+		Resource[] classes = new PathMatchingResourcePatternResolver()
+				.getResources("classpath*:com/example/backend/**/*.class");
+		for (Resource resource : classes) {
+			try (InputStream in = resource.getInputStream()) {
+				new ClassReader(in).accept(new SynchronizedFinder(offenders), ClassReader.SKIP_DEBUG);
+			}
+		}
+
+		assertThat(classes).isNotEmpty();
+		assertThat(offenders).isEmpty();
+	}
+
+	private static final class SynchronizedFinder extends ClassVisitor {
+
+		private final List<String> offenders;
+		private String className;
+
+		SynchronizedFinder(List<String> offenders) {
+			super(Opcodes.ASM9);
+			this.offenders = offenders;
+		}
+
+		@Override
+		public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+			className = name.replace('/', '.');
+		}
+
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+			String method = className + "." + name;
+			if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+				offenders.add(method + " (synchronized method)");
+			}
+			return new MethodVisitor(Opcodes.ASM9) {
+				@Override
+				public void visitInsn(int opcode) {
+					if (opcode == Opcodes.MONITORENTER) {
+						offenders.add(method + " (synchronized block)");
+					}
+				}
+			};
+		}
+	}
+}
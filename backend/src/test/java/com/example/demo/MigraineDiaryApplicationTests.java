@@ -3,7 +3,9 @@ package com.example.demo;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+import com.example.backend.MigraineDiaryApplication;
+
+@SpringBootTest(classes = MigraineDiaryApplication.class)
 class MigraineDiaryApplicationTests {
 
 	@Test
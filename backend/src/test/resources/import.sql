@@ -0,0 +1,2 @@
+-- Run by Hibernate once it has created the H2 schema; see H2TriggerIds
+CREATE ALIAS episode_trigger_ids FOR 'com.example.backend.Episode.H2TriggerIds.of';